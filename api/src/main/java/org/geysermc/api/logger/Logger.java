@@ -25,6 +25,8 @@
 
 package org.geysermc.api.logger;
 
+import java.util.function.Supplier;
+
 public interface Logger {
 
     /**
@@ -72,6 +74,23 @@ public interface Logger {
      */
     void debug(String message);
 
+    /**
+     * Logs a debug message to console, the message is only created if debug messages are printed
+     *
+     * @param message the supplier of the message to log
+     */
+    default void debug(Supplier<String> message) {
+        if (isDebug())
+            debug(message.get());
+    }
+
+    /**
+     * @return if the logger prints debug messages, true unless the logger knows it doesn't
+     */
+    default boolean isDebug() {
+        return true;
+    }
+
     /**
      * Sets if the logger should print debug messages
      *
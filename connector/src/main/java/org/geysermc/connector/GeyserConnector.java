@@ -28,6 +28,9 @@ package org.geysermc.connector;
 import com.nukkitx.protocol.bedrock.BedrockPacketCodec;
 import com.nukkitx.protocol.bedrock.BedrockServer;
 import com.nukkitx.protocol.bedrock.v361.Bedrock_v361;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import lombok.Getter;
 import org.fusesource.jansi.AnsiConsole;
 import org.geysermc.api.Connector;
@@ -41,15 +44,20 @@ import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.console.ConsoleCommandReader;
 import org.geysermc.connector.console.GeyserLogger;
 import org.geysermc.connector.metrics.Metrics;
+import org.geysermc.connector.network.AdmissionController;
 import org.geysermc.connector.network.ConnectorServerEventHandler;
-import org.geysermc.connector.network.remote.RemoteJavaServer;
+import org.geysermc.connector.network.remote.BackendBalancer;
+import org.geysermc.connector.network.remote.StatusPoller;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.SessionRegistry;
 import org.geysermc.connector.network.translators.TranslatorsInit;
 import org.geysermc.connector.plugin.GeyserPluginLoader;
 import org.geysermc.connector.plugin.GeyserPluginManager;
-import org.geysermc.connector.thread.PingPassthroughThread;
+import org.geysermc.connector.shared.SharedPlayerRegistry;
+import org.geysermc.connector.shared.SharedState;
 import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.Toolbox;
+import org.geysermc.connector.world.chunk.SectionCache;
 
 import java.io.File;
 import java.io.IOException;
@@ -57,10 +65,9 @@ import java.net.InetSocketAddress;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -72,11 +79,11 @@ public class GeyserConnector implements Connector {
     public static final String NAME = "Geyser";
     public static final String VERSION = "1.0-SNAPSHOT";
 
-    private final Map<Object, GeyserSession> players = new HashMap<>();
+    private final SessionRegistry sessionRegistry = new SessionRegistry();
 
     private static GeyserConnector instance;
 
-    private RemoteJavaServer remoteServer;
+    private BackendBalancer backendBalancer;
 
     private Logger logger;
 
@@ -88,7 +95,13 @@ public class GeyserConnector implements Connector {
     private boolean shuttingDown = false;
 
     private final ScheduledExecutorService generalThreadPool;
-    private PingPassthroughThread passthroughThread;
+    private EventLoopGroup statusEventLoopGroup;
+    private StatusPoller passthroughPoller;
+    private SectionCache sectionCache;
+    private ForkJoinPool chunkTranslationPool;
+    private AdmissionController admissionController;
+    private SharedState sharedState;
+    private SharedPlayerRegistry sharedPlayers;
 
     private Metrics metrics;
 
@@ -125,6 +138,13 @@ public class GeyserConnector implements Connector {
         }
 
         this.generalThreadPool = Executors.newScheduledThreadPool(config.getGeneralThreadPool());
+        this.sharedState = SharedState.create(config.getSharedState());
+        int sweepInterval = Math.max(1, config.getSharedState().getSweepInterval());
+        generalThreadPool.scheduleAtFixedRate(sharedState::sweep, sweepInterval, sweepInterval, TimeUnit.SECONDS);
+        String nodeId = config.getSharedState().getNodeId();
+        this.sharedPlayers = new SharedPlayerRegistry(sharedState, sessionRegistry, generalThreadPool,
+                nodeId == null || nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId);
+        this.admissionController = new AdmissionController(config.getAdmission(), sharedState, generalThreadPool);
         ConsoleCommandReader consoleReader = new ConsoleCommandReader(this);
         consoleReader.startConsole();
 
@@ -132,17 +152,29 @@ public class GeyserConnector implements Connector {
 
         TranslatorsInit.start();
 
+        if (config.getSectionCache().isEnabled()) {
+            sectionCache = new SectionCache(config.getSectionCache().getMaxSections());
+        }
+
+        if (config.getChunkTranslation().isParallel()) {
+            int parallelism = config.getChunkTranslation().getParallelism();
+            chunkTranslationPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+
         commandMap = new GeyserCommandMap(this);
-        remoteServer = new RemoteJavaServer(config.getRemote().getAddress(), config.getRemote().getPort());
+        // One thread is plenty for the status polls of every server, it only waits on sockets
+        statusEventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("Geyser Status Poller", true));
+        backendBalancer = new BackendBalancer(config.getRemote(), statusEventLoopGroup);
 
         Geyser.setConnector(this);
 
         pluginManager = new GeyserPluginManager(new GeyserPluginLoader(this));
         pluginManager.getLoader().loadPlugins();
 
-        passthroughThread = new PingPassthroughThread(this);
+        passthroughPoller = new StatusPoller(statusEventLoopGroup, config.getRemote().getAddress(), config.getRemote().getPort(),
+                TimeUnit.SECONDS.toMillis(config.getPingPassthroughInterval()));
         if (config.isPingPassthrough())
-            generalThreadPool.scheduleAtFixedRate(passthroughThread, 1, 1, TimeUnit.SECONDS);
+            passthroughPoller.start();
 
         BedrockServer bedrockServer = new BedrockServer(new InetSocketAddress(config.getBedrock().getAddress(), config.getBedrock().getPort()));
         bedrockServer.setHandler(new ConnectorServerEventHandler(this));
@@ -168,7 +200,7 @@ public class GeyserConnector implements Connector {
 
     @Override
     public Collection<? extends Player> getConnectedPlayers() {
-        return players.values();
+        return sessionRegistry.getSessions();
     }
 
     public void shutdown() {
@@ -180,19 +212,32 @@ public class GeyserConnector implements Connector {
 
         shuttingDown = true;
 
+        if (passthroughPoller != null)
+            passthroughPoller.stop();
+
+        if (backendBalancer != null)
+            backendBalancer.stop();
+
+        if (statusEventLoopGroup != null)
+            statusEventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+
         generalThreadPool.shutdown();
+        if (sharedState != null)
+            sharedState.close();
+        if (chunkTranslationPool != null)
+            chunkTranslationPool.shutdown();
+
         System.exit(0);
     }
 
     public void addPlayer(GeyserSession player) {
-        players.put(player.getAuthenticationData().getName(), player);
-        players.put(player.getAuthenticationData().getUUID(), player);
-        players.put(player.getSocketAddress(), player);
+        sessionRegistry.register(player);
+        sharedPlayers.publish(player);
     }
 
     public void removePlayer(GeyserSession player) {
-        players.remove(player.getAuthenticationData().getName());
-        players.remove(player.getAuthenticationData().getUUID());
-        players.remove(player.getSocketAddress());
+        if (sessionRegistry.unregister(player)) {
+            sharedPlayers.withdraw(player);
+        }
     }
 }
@@ -30,6 +30,9 @@ import org.geysermc.api.command.CommandMap;
 import org.geysermc.api.command.CommandSender;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.command.defaults.HelpCommand;
+import org.geysermc.connector.command.defaults.LoadTestCommand;
+import org.geysermc.connector.command.defaults.ReplayCommand;
+import org.geysermc.connector.command.defaults.StatsCommand;
 import org.geysermc.connector.command.defaults.StopCommand;
 
 import java.util.Collections;
@@ -50,6 +53,9 @@ public class GeyserCommandMap implements CommandMap {
     public void registerDefaults() {
         registerCommand(new HelpCommand(connector, "help", "Shows help for all registered commands."));
         registerCommand(new StopCommand(connector, "stop", "Shut down Geyser."));
+        registerCommand(new StatsCommand(connector, "stats", "Shows performance statistics."));
+        registerCommand(new LoadTestCommand(connector, "loadtest", "Connects simulated players to a fake Java server and measures their cost."));
+        registerCommand(new ReplayCommand(connector, "replay", "Replays a packet capture and shows how long it took."));
     }
 
     public void registerCommand(Command command) {
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.command.defaults;
+
+import org.geysermc.api.ChatColor;
+import org.geysermc.api.command.CommandSender;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.command.GeyserCommand;
+import org.geysermc.connector.loadtest.LoadTest;
+
+import java.util.concurrent.TimeUnit;
+
+public class LoadTestCommand extends GeyserCommand {
+
+    private static final int DEFAULT_SECONDS = 30;
+
+    public GeyserConnector connector;
+
+    public LoadTestCommand(GeyserConnector connector, String name, String description) {
+        super(name, description);
+        this.connector = connector;
+    }
+
+    @Override
+    public void execute(CommandSender sender, String[] args) {
+        int players;
+        int seconds = DEFAULT_SECONDS;
+        try {
+            players = Integer.parseInt(args[0]);
+            if (args.length > 1) {
+                seconds = Integer.parseInt(args[1]);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+            sender.sendMessage(ChatColor.RED + "Usage: loadtest <players> [seconds]");
+            return;
+        }
+
+        int duration = seconds;
+        sender.sendMessage("Starting load test with " + players + " players for " + duration + " seconds...");
+        new Thread(() -> {
+            try {
+                LoadTest.Result result = LoadTest.run(connector, players, duration);
+                sender.sendMessage(result.getConnectedPlayers() + "/" + result.getPlayers() + " players connected, "
+                        + result.getUpstreamPackets() + " Bedrock packets sent");
+                sender.sendMessage("Latency: " + TimeUnit.NANOSECONDS.toMicros(result.getAverageLatency()) + "us average, "
+                        + TimeUnit.NANOSECONDS.toMicros(result.getMaxLatency()) + "us max");
+                if (result.getCpuTimePerPlayer() >= 0) {
+                    sender.sendMessage("CPU: " + TimeUnit.NANOSECONDS.toMicros(result.getCpuTimePerPlayer()) + "us per player per second (including the fake server)");
+                }
+                sender.sendMessage("Heap: " + result.getHeapPerPlayer() / 1024 + "KB per player");
+            } catch (Exception ex) {
+                sender.sendMessage(ChatColor.RED + "Load test failed: " + ex.getMessage());
+                ex.printStackTrace();
+            }
+        }, "Geyser Load Test").start();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.command.defaults;
+
+import org.geysermc.api.ChatColor;
+import org.geysermc.api.command.CommandSender;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.command.GeyserCommand;
+import org.geysermc.connector.network.capture.CaptureReplay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class ReplayCommand extends GeyserCommand {
+
+    public GeyserConnector connector;
+
+    public ReplayCommand(GeyserConnector connector, String name, String description) {
+        super(name, description);
+        this.connector = connector;
+    }
+
+    @Override
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length != 1) {
+            sender.sendMessage(ChatColor.RED + "Usage: replay <capture file>");
+            return;
+        }
+
+        File file = new File(args[0]);
+        if (!file.isFile()) {
+            file = new File(connector.getConfig().getCapture().getDirectory(), args[0]);
+        }
+
+        if (!file.isFile()) {
+            sender.sendMessage(ChatColor.RED + "Capture " + args[0] + " does not exist.");
+            return;
+        }
+
+        sender.sendMessage("Replaying " + file.getName() + "...");
+        try {
+            CaptureReplay.Result result = CaptureReplay.replay(connector, file);
+            sender.sendMessage("Replayed " + result.getJavaPackets() + " Java and " + result.getBedrockPackets() + " Bedrock packets ("
+                    + result.getUntranslatedPackets() + " untranslated), sending " + result.getUpstreamPackets() + " Bedrock packets ("
+                    + result.getCapturedUpstreamPackets() + " when captured)");
+            sender.sendMessage("Took " + TimeUnit.NANOSECONDS.toMillis(result.getReplayTime()) + "ms ("
+                    + TimeUnit.NANOSECONDS.toMillis(result.getCpuTime()) + "ms CPU over all threads) for "
+                    + TimeUnit.NANOSECONDS.toMillis(result.getCaptureTime()) + "ms of capture, "
+                    + String.format("%.0f", result.getPacketsPerSecond()) + " packets/s");
+            if (result.getAllocatedBytes() >= 0) {
+                long packets = Math.max(1, result.getJavaPackets() + result.getBedrockPackets());
+                sender.sendMessage("Allocated " + result.getAllocatedBytes() / 1024 + "KB, " + result.getAllocatedBytes() / packets + " bytes per packet");
+            }
+        } catch (IOException ex) {
+            sender.sendMessage(ChatColor.RED + "Could not replay " + file.getName() + ": " + ex.getMessage());
+        }
+    }
+}
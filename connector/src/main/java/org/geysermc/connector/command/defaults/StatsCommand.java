@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.command.defaults;
+
+import org.geysermc.api.ChatColor;
+import org.geysermc.api.command.CommandSender;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.command.GeyserCommand;
+import org.geysermc.connector.network.remote.FilteredMinecraftProtocol;
+import org.geysermc.connector.world.chunk.SectionCache;
+
+public class StatsCommand extends GeyserCommand {
+
+    public GeyserConnector connector;
+
+    public StatsCommand(GeyserConnector connector, String name, String description) {
+        super(name, description);
+        this.connector = connector;
+    }
+
+    @Override
+    public void execute(CommandSender sender, String[] args) {
+        sender.sendMessage("---- Skipped Java Packets ----");
+
+        long totalPackets = 0;
+        long totalBytes = 0;
+        for (int id = 0; id <= FilteredMinecraftProtocol.getMaxPacketId(); id++) {
+            long packets = FilteredMinecraftProtocol.getSkippedPackets(id);
+            if (packets == 0)
+                continue;
+
+            long bytes = FilteredMinecraftProtocol.getSkippedBytes(id);
+            totalPackets += packets;
+            totalBytes += bytes;
+            sender.sendMessage(ChatColor.YELLOW + String.format("0x%02X ", id) + FilteredMinecraftProtocol.getPacketName(id)
+                    + ChatColor.WHITE + ": " + packets + " packets, " + bytes + " bytes");
+        }
+        sender.sendMessage("Total: " + totalPackets + " packets, " + totalBytes + " bytes");
+
+        sender.sendMessage("---- Players ----");
+        sender.sendMessage("This process: " + connector.getSessionRegistry().size() + ", all processes: " + connector.getSharedPlayers().getPlayerCount());
+
+        SectionCache sectionCache = connector.getSectionCache();
+        if (sectionCache != null) {
+            sender.sendMessage("---- Section Cache ----");
+            sender.sendMessage("Sections: " + sectionCache.size() + ", hit rate: " + String.format("%.1f%%", sectionCache.getHitRate() * 100));
+            sender.sendMessage(sectionCache.getHits() + " hits, " + sectionCache.getMisses() + " misses, "
+                    + sectionCache.getCollisions() + " collisions, " + sectionCache.getEvictions() + " evictions");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+@Getter
+public class AdmissionInfo {
+
+    private boolean enabled = false;
+
+    @JsonProperty("max-concurrent-logins")
+    private int maxConcurrentLogins = 16;
+
+    @JsonProperty("logins-per-second")
+    private double loginsPerSecond = 10;
+
+    @JsonProperty("login-burst")
+    private int loginBurst = 20;
+
+    @JsonProperty("max-connections-per-ip")
+    private int maxConnectionsPerIp = 0;
+
+    @JsonProperty("queue-size")
+    private int queueSize = 500;
+
+    @JsonProperty("login-timeout")
+    private int loginTimeout = 30;
+
+    @JsonProperty("global-logins-per-second")
+    private int globalLoginsPerSecond = 0;
+
+    @JsonProperty("global-max-players")
+    private int globalMaxPlayers = 0;
+}
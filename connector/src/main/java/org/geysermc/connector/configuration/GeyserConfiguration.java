@@ -29,6 +29,8 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -42,9 +44,17 @@ public class GeyserConfiguration {
     @JsonProperty("ping-passthrough")
     private boolean pingPassthrough;
 
+    @JsonProperty("ping-passthrough-interval")
+    private int pingPassthroughInterval = 3;
+
+    @JsonProperty("ping-rate-limit")
+    private int pingRateLimit = 20;
+
     @JsonProperty("max-players")
     private int maxPlayers;
 
+    private AdmissionInfo admission = new AdmissionInfo();
+
     @JsonProperty("debug-mode")
     private boolean debugMode;
 
@@ -54,5 +64,29 @@ public class GeyserConfiguration {
     @JsonProperty("allow-third-party-capes")
     private boolean allowThirdPartyCapes;
 
+    @JsonProperty("skip-untranslated-packets")
+    private boolean skipUntranslatedPackets = false;
+
+    @JsonProperty("always-decode-packets")
+    private List<String> alwaysDecodePackets = Arrays.asList("ServerKeepAlivePacket", "ServerDisconnectPacket",
+            "ServerPluginMessagePacket", "ServerResourcePackSendPacket");
+
+    @JsonProperty("upstream-batching")
+    private BatchingInfo upstreamBatching = new BatchingInfo();
+
+    @JsonProperty("upstream-compression")
+    private CompressionInfo upstreamCompression = new CompressionInfo();
+
+    @JsonProperty("chunk-translation")
+    private ChunkTranslationInfo chunkTranslation = new ChunkTranslationInfo();
+
+    @JsonProperty("section-cache")
+    private SectionCacheInfo sectionCache = new SectionCacheInfo();
+
+    @JsonProperty("shared-state")
+    private SharedStateInfo sharedState = new SharedStateInfo();
+
+    private CaptureInfo capture = new CaptureInfo();
+
     private MetricInfo metrics;
 }
@@ -28,6 +28,9 @@ package org.geysermc.connector.configuration;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 public class RemoteConfiguration {
 
@@ -39,4 +42,11 @@ public class RemoteConfiguration {
 
     @JsonProperty("auth-type")
     private String authType;
+
+    private List<BackendInfo> backends = new ArrayList<>();
+
+    private String balancing = "least-connections";
+
+    @JsonProperty("health-check-interval")
+    private int healthCheckInterval = 5;
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.console;
+
+import org.geysermc.api.ChatColor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes log lines to the console and to logs/latest.log on a background thread.
+ *
+ * Lines are handed over through a ring buffer and written in batches, so the threads that log
+ * never wait for the console or the disk. Lines logged while the buffer is full are dropped and
+ * counted, the count is written once there is room again. The log file is rotated
+ * into a gzipped archive every day and when it gets larger than {@link #MAX_FILE_SIZE}.
+ */
+public class AsyncLogWriter {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_BATCH_SIZE = 512;
+    private static final long MAX_FILE_SIZE = 20 * 1024 * 1024;
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final LogRingBuffer<LogEntry> buffer = new LogRingBuffer<>(BUFFER_SIZE);
+    private final boolean colored;
+    private final File logDir;
+    private final File logFile;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Only used by the writer thread
+    private final SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+    private Writer writer;
+    private String fileDay;
+    private long fileSize;
+    private volatile long droppedTotal;
+
+    public AsyncLogWriter(File logDir, boolean colored) {
+        this.colored = colored;
+        this.logDir = logDir;
+        this.logFile = new File(logDir, "latest.log");
+
+        this.thread = new Thread(this::run, "Geyser Log Writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
+    /**
+     * Queues a line to be written
+     *
+     * @param level the name of the level, written to the log file
+     * @param message the message, may contain color codes
+     */
+    public void log(String level, String message) {
+        LogEntry entry = new LogEntry(System.currentTimeMillis(), level, message);
+        if (buffer.offer(entry))
+            return;
+
+        if (!running || Thread.currentThread() == thread) {
+            System.out.println(GeyserLogger.printConsole(message, colored));
+        } else {
+            // Waiting for room would stall the thread that logged, which may be a network thread
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the amount of lines dropped because the buffer was full
+     */
+    public long getDroppedLines() {
+        return droppedTotal;
+    }
+
+    /**
+     * Writes every queued line and closes the log file
+     */
+    public void stop() {
+        if (!running)
+            return;
+
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        openFile();
+
+        List<LogEntry> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !buffer.isEmpty()) {
+            if (buffer.drain(batch, MAX_BATCH_SIZE) == 0) {
+                if (running) {
+                    LockSupport.parkNanos(IDLE_WAIT);
+                } else {
+                    Thread.yield(); // a producer claimed a slot but didn't fill it yet
+                }
+                continue;
+            }
+
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                droppedTotal += lost;
+                batch.add(new LogEntry(System.currentTimeMillis(), "WARN", ChatColor.YELLOW + "Dropped " + lost + " log lines because the log buffer was full"));
+            }
+
+            try {
+                write(batch);
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+            }
+            batch.clear();
+        }
+
+        closeFile();
+    }
+
+    private void write(List<LogEntry> batch) throws IOException {
+        StringBuilder console = new StringBuilder();
+        StringBuilder file = new StringBuilder();
+        for (LogEntry entry : batch) {
+            console.append(GeyserLogger.printConsole(entry.message, colored)).append(System.lineSeparator());
+
+            if (writer != null) {
+                Date date = new Date(entry.time);
+                String day = dayFormat.format(date);
+                if (!day.equals(fileDay) || fileSize >= MAX_FILE_SIZE) {
+                    writeFile(file);
+                    rotate(fileDay);
+                    fileDay = day;
+                }
+
+                int start = file.length();
+                file.append('[').append(day).append(' ').append(timeFormat.format(date)).append("][")
+                        .append(entry.level).append("] ")
+                        .append(ChatColor.stripColors(entry.message)).append(System.lineSeparator());
+                fileSize += file.length() - start;
+            }
+        }
+
+        System.out.print(console);
+        writeFile(file);
+    }
+
+    private void writeFile(StringBuilder lines) throws IOException {
+        if (writer == null || lines.length() == 0)
+            return;
+
+        writer.write(lines.toString());
+        writer.flush();
+        lines.setLength(0);
+    }
+
+    private void openFile() {
+        try {
+            logDir.mkdirs();
+            if (logFile.exists()) {
+                String day = dayFormat.format(new Date(logFile.lastModified()));
+                if (!day.equals(dayFormat.format(new Date())) || logFile.length() >= MAX_FILE_SIZE) {
+                    archive(day);
+                }
+            }
+
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(logFile, true), StandardCharsets.UTF_8));
+            fileDay = dayFormat.format(new Date());
+            fileSize = logFile.length();
+        } catch (IOException | SecurityException ex) {
+            System.err.println("Could not open " + logFile + ", logging to the console only");
+            ex.printStackTrace();
+            writer = null;
+        }
+    }
+
+    private void closeFile() {
+        if (writer == null)
+            return;
+
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        writer = null;
+    }
+
+    private void rotate(String day) {
+        closeFile();
+        try {
+            archive(day);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        openFile();
+    }
+
+    /**
+     * Compresses the current log file into logs/day-n.log.gz and deletes it
+     */
+    private void archive(String day) throws IOException {
+        File archive;
+        int index = 1;
+        do {
+            archive = new File(logDir, day + "-" + index++ + ".log.gz");
+        } while (archive.exists());
+
+        try (InputStream in = new FileInputStream(logFile);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(archive))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+
+        if (!logFile.delete()) {
+            throw new IOException("Could not delete " + logFile + " after archiving it");
+        }
+    }
+
+    private static class LogEntry {
+        private final long time;
+        private final String level;
+        private final String message;
+
+        private LogEntry(long time, String level, String message) {
+            this.time = time;
+            this.level = level;
+            this.message = message;
+        }
+    }
+}
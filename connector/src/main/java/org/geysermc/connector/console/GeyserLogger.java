@@ -29,57 +29,22 @@ import io.sentry.Sentry;
 import org.geysermc.api.ChatColor;
 
 import java.io.File;
-import java.io.IOException;
-import java.util.Date;
-import java.util.logging.*;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
 
 public class GeyserLogger implements org.geysermc.api.logger.Logger {
 
     private boolean colored = true;
-    private boolean debug = false;
+    private volatile boolean debug = false;
 
     public static final GeyserLogger DEFAULT = new GeyserLogger();
 
+    private final AsyncLogWriter writer;
+
     private GeyserLogger() {
-        ConsoleHandler consoleHandler = new ConsoleHandler();
-        consoleHandler.setLevel(Level.INFO);
-        consoleHandler.setFormatter(new SimpleFormatter() {
-            private static final String format = "[%1$tT][%2$-5s] %3$s %n";
-
-            @Override
-            public synchronized String format(LogRecord lr) {
-                return String.format(format,
-                        new Date(lr.getMillis()),
-                        lr.getLevel().getLocalizedName(),
-                        lr.getMessage()
-                );
-            }
-        });
-
-        try {
-            File logDir = new File("logs");
-            logDir.mkdir();
-            File logFile = new File(logDir, "latest.log");
-            int maxLogFileSize = 20;//Mo
-            if (logFile.exists() && (logFile.length()) > maxLogFileSize * 1024L * 1024L)
-                this.warning("Your log file is larger than " + maxLogFileSize + "Mo, you should backup and clean it !");
-            FileHandler fileHandler = new FileHandler(logFile.getCanonicalPath(), true);
-            fileHandler.setLevel(Level.INFO);
-            fileHandler.setFormatter(new SimpleFormatter() {
-                private static final String format = "[%1$tF %1$tT][%2$-5s] %3$s %n";
-
-                @Override
-                public synchronized String format(LogRecord lr) {
-                    return String.format(format,
-                            new Date(lr.getMillis()),
-                            lr.getLevel().getLocalizedName(),
-                            lr.getMessage()
-                    );
-                }
-            });
-        } catch (IOException | SecurityException ex) {
-            Logger.getLogger(GeyserLogger.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        writer = new AsyncLogWriter(new File("logs"), colored);
 
         if (System.getenv().containsKey("DP_SENTRY_CLIENT_KEY")) {
             Handler sentryHandler = new io.sentry.jul.SentryHandler();
@@ -90,59 +55,62 @@ public class GeyserLogger implements org.geysermc.api.logger.Logger {
 
     @Override
     public void severe(String message) {
-        waitFor();
-        System.out.println(printConsole(ChatColor.DARK_RED + message, colored));
+        writer.log("SEVERE", ChatColor.DARK_RED + message);
     }
 
     @Override
     public void severe(String message, Throwable error) {
-        waitFor();
-        System.out.println(printConsole(ChatColor.DARK_RED + message + "\n" + error.getMessage(), colored));
+        writer.log("SEVERE", ChatColor.DARK_RED + message + "\n" + getStackTrace(error));
     }
 
     @Override
     public void error(String message) {
-        waitFor();
-        System.out.println(printConsole(ChatColor.RED + message, colored));
+        writer.log("ERROR", ChatColor.RED + message);
     }
 
     @Override
     public void error(String message, Throwable error) {
-        waitFor();
-        System.out.println(printConsole(ChatColor.RED + message + "\n" + error, colored));
+        writer.log("ERROR", ChatColor.RED + message + "\n" + getStackTrace(error));
     }
 
     @Override
     public void warning(String message) {
-        waitFor();
-        System.out.println(printConsole(ChatColor.YELLOW + message, colored));
+        writer.log("WARN", ChatColor.YELLOW + message);
     }
 
     @Override
     public void info(String message) {
-        waitFor();
-        System.out.println(printConsole(ChatColor.WHITE + message, colored));
+        writer.log("INFO", ChatColor.WHITE + message);
     }
 
     @Override
     public void debug(String message) {
-        waitFor();
-
         if (debug)
-            System.out.println(printConsole(ChatColor.GRAY + message, colored));
+            writer.log("DEBUG", ChatColor.GRAY + message);
     }
 
-    private synchronized void waitFor() {
-
+    /**
+     * Writes every queued message, should be called before exiting
+     */
+    public void stop() {
+        writer.stop();
     }
 
-    public void stop() {
+    private static String getStackTrace(Throwable error) {
+        StringWriter stackTrace = new StringWriter();
+        error.printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.toString().trim();
     }
 
     public static String printConsole(String message, boolean colors) {
         return colors ? ChatColor.toANSI(message + ChatColor.RESET) : ChatColor.stripColors(message + ChatColor.RESET);
     }
 
+    @Override
+    public boolean isDebug() {
+        return debug;
+    }
+
     @Override
     public void setDebug(boolean debug) {
         this.debug = debug;
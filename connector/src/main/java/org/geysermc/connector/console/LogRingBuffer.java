@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.console;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer that any amount of threads can add to and a single thread drains
+ *
+ * @param <T> the type of the elements
+ */
+class LogRingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private volatile long consumerIndex;
+
+    /**
+     * @param capacity the capacity of the buffer, rounded up to a power of two
+     */
+    LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param element the element to add
+     * @return false if the buffer is full
+     */
+    boolean offer(T element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex > mask)
+                return false;
+        } while (!producerIndex.compareAndSet(index, index + 1));
+
+        slots.lazySet((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Moves the elements at the head of the buffer to the given list, stops at a claimed slot
+     * that the producer hasn't filled yet. May only be called from a single thread.
+     *
+     * @param target the list to add the elements to
+     * @param max the maximum amount of elements to move
+     * @return the amount of elements moved
+     */
+    int drain(List<T> target, int max) {
+        long index = consumerIndex;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) index & mask;
+            T element = slots.get(slot);
+            if (element == null)
+                break;
+
+            slots.lazySet(slot, null);
+            target.add(element);
+            index++;
+            drained++;
+        }
+        consumerIndex = index;
+        return drained;
+    }
+
+    boolean isEmpty() {
+        return producerIndex.get() == consumerIndex;
+    }
+}
@@ -33,7 +33,7 @@ public class PaintingEntity extends Entity {
 
         valid = true;
 
-        GeyserLogger.DEFAULT.debug("Spawned painting on " + position);
+        GeyserLogger.DEFAULT.debug(() -> "Spawned painting on " + position);
     }
 
     public Vector3f fixOffset(boolean toBedrock) {
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.loadtest;
+
+import com.github.steveice10.mc.protocol.MinecraftConstants;
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.ServerLoginHandler;
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.EntityMetadata;
+import com.github.steveice10.mc.protocol.data.game.entity.player.GameMode;
+import com.github.steveice10.mc.protocol.data.game.entity.type.MobType;
+import com.github.steveice10.mc.protocol.data.game.world.WorldType;
+import com.github.steveice10.mc.protocol.data.game.world.block.BlockState;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerChatPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerJoinGamePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.ServerEntityPositionPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.player.ServerPlayerPositionRotationPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.spawn.ServerSpawnMobPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerChunkDataPacket;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.packetlib.Server;
+import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.event.server.ServerAdapter;
+import com.github.steveice10.packetlib.event.server.SessionRemovedEvent;
+import com.github.steveice10.packetlib.tcp.TcpSessionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Java server that sends every player that logs in the same scripted stream of packets:
+ * a square of chunks around spawn, a group of mobs walking back and forth every tick
+ * and a chat message every second, which carries the time it was sent to measure latency.
+ */
+public class FakeJavaServer {
+    static final String CHAT_PREFIX = "LoadTest ";
+
+    private static final int CHUNK_RADIUS = 4;
+    private static final int MOB_COUNT = 20;
+    private static final int FIRST_MOB_ID = 1000;
+    private static final int TICKS_PER_CHAT = 20;
+
+    private final Server server;
+    private final Set<Session> players = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Geyser Load Test Server");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Column> columns = createColumns();
+    private int tick;
+
+    public FakeJavaServer(String address, int port) {
+        server = new Server(address, port, MinecraftProtocol.class, new TcpSessionFactory());
+        server.setGlobalFlag(MinecraftConstants.VERIFY_USERS_KEY, false);
+        server.setGlobalFlag(MinecraftConstants.SERVER_COMPRESSION_THRESHOLD, 256);
+        server.setGlobalFlag(MinecraftConstants.SERVER_LOGIN_HANDLER_KEY, (ServerLoginHandler) this::onLogin);
+        server.addListener(new ServerAdapter() {
+            @Override
+            public void sessionRemoved(SessionRemovedEvent event) {
+                players.remove(event.getSession());
+            }
+        });
+    }
+
+    public void start() {
+        server.bind();
+        ticker.scheduleAtFixedRate(this::tick, 50, 50, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+        server.close();
+    }
+
+    private void onLogin(Session session) {
+        session.send(new ServerJoinGamePacket(1, false, GameMode.SURVIVAL, 0, 100, WorldType.FLAT, CHUNK_RADIUS, false));
+        session.send(new ServerPlayerPositionRotationPacket(8, 5, 8, 0, 0, 0));
+        for (Column column : columns) {
+            session.send(new ServerChunkDataPacket(column));
+        }
+
+        for (int i = 0; i < MOB_COUNT; i++) {
+            session.send(new ServerSpawnMobPacket(FIRST_MOB_ID + i, UUID.randomUUID(), MobType.ZOMBIE,
+                    i % 5 * 3, 5, i / 5 * 3, 0, 0, 0, 0, 0, 0, new EntityMetadata[0]));
+        }
+        players.add(session);
+    }
+
+    private void tick() {
+        tick++;
+        // Walk back and forth, so the mobs stay on the chunks that were sent
+        double move = tick / 20 % 2 == 0 ? 0.1 : -0.1;
+        boolean chat = tick % TICKS_PER_CHAT == 0;
+
+        for (Session session : players) {
+            if (!session.isConnected())
+                continue;
+
+            for (int i = 0; i < MOB_COUNT; i++) {
+                session.send(new ServerEntityPositionPacket(FIRST_MOB_ID + i, move, 0, 0, true));
+            }
+
+            if (chat) {
+                session.send(new ServerChatPacket(CHAT_PREFIX + System.nanoTime()));
+            }
+        }
+    }
+
+    /**
+     * Creates flat columns of stone, dirt and grass, shared by every player
+     */
+    private static List<Column> createColumns() {
+        BlockState stone = new BlockState(1);
+        BlockState dirt = new BlockState(10);
+        BlockState grass = new BlockState(9);
+
+        Chunk ground = new Chunk();
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                ground.set(x, 0, z, stone);
+                ground.set(x, 1, z, stone);
+                ground.set(x, 2, z, dirt);
+                ground.set(x, 3, z, grass);
+            }
+        }
+
+        List<Column> columns = new ArrayList<>();
+        for (int x = -CHUNK_RADIUS; x <= CHUNK_RADIUS; x++) {
+            for (int z = -CHUNK_RADIUS; z <= CHUNK_RADIUS; z++) {
+                Chunk[] chunks = new Chunk[16];
+                chunks[0] = ground;
+                columns.add(new Column(x, z, chunks, new int[256], new CompoundTag[0], new CompoundTag("")));
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.network.remote.RemoteJavaServer;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.auth.BedrockAuthData;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects simulated players to a {@link FakeJavaServer} on loopback and measures what they cost.
+ *
+ * The players are full sessions with a real connection to the Java server, only the Bedrock
+ * client is replaced by an upstream that doesn't send anything. They log in without authentication.
+ */
+public class LoadTest {
+    private static final String ADDRESS = "127.0.0.1";
+    private static final int PLAYERS_PER_BATCH = 10;
+    private static final long BATCH_DELAY = 100;
+    private static final long WARMUP = TimeUnit.SECONDS.toMillis(5);
+
+    public static Result run(GeyserConnector connector, int playerCount, int seconds) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        FakeJavaServer server = new FakeJavaServer(ADDRESS, port);
+        server.start();
+
+        GeyserConfiguration config = connector.getConfig();
+        RemoteJavaServer remote = new RemoteJavaServer(ADDRESS, port);
+        List<GeyserSession> sessions = new ArrayList<>();
+        List<LoadTestUpstreamSession> upstreams = new ArrayList<>();
+        try {
+            long heapBefore = getUsedHeap();
+
+            for (int i = 0; i < playerCount; i++) {
+                LoadTestUpstreamSession upstream = new LoadTestUpstreamSession(new InetSocketAddress(ADDRESS, 20000 + i),
+                        config.getUpstreamBatching(), config.getUpstreamCompression());
+                GeyserSession session = new GeyserSession(connector, upstream);
+                String name = "LoadTest" + i;
+                session.setAuthenticationData(new BedrockAuthData(name, UUID.nameUUIDFromBytes(name.getBytes()), "0"));
+
+                session.connect(remote);
+                if (!session.isLoggedIn()) {
+                    session.authenticate(name);
+                }
+
+                sessions.add(session);
+                upstreams.add(upstream);
+                if ((i + 1) % PLAYERS_PER_BATCH == 0) {
+                    Thread.sleep(BATCH_DELAY);
+                }
+            }
+
+            // Give every player time to receive the spawn chunks before measuring
+            Thread.sleep(WARMUP);
+            long heapAfter = getUsedHeap();
+
+            long cpuStart = getProcessCpuTime();
+            long start = System.nanoTime();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            long cpuTime = getProcessCpuTime() - cpuStart;
+            long time = System.nanoTime() - start;
+
+            long samples = 0;
+            long totalLatency = 0;
+            long maxLatency = 0;
+            long packets = 0;
+            for (LoadTestUpstreamSession upstream : upstreams) {
+                samples += upstream.getLatencySamples();
+                totalLatency += upstream.getAverageLatency() * upstream.getLatencySamples();
+                maxLatency = Math.max(maxLatency, upstream.getMaxLatency());
+                packets += upstream.getPacketsSent();
+            }
+
+            int connected = 0;
+            for (GeyserSession session : sessions) {
+                if (session.getDownstream() != null && session.getDownstream().getSession().isConnected()) {
+                    connected++;
+                }
+            }
+
+            return new Result(playerCount, connected, samples == 0 ? 0 : totalLatency / samples, maxLatency, packets,
+                    cpuTime, time, heapAfter - heapBefore);
+        } finally {
+            for (GeyserSession session : sessions) {
+                session.disconnect("Load test finished");
+                connector.removePlayer(session);
+            }
+            server.stop();
+        }
+    }
+
+    private static long getUsedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * @return the CPU time of the whole process in nanoseconds, or -1 if the JVM doesn't provide it
+     */
+    private static long getProcessCpuTime() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final int players;
+        private final int connectedPlayers;
+
+        /**
+         * The latency in nanoseconds between the fake server sending a chat message and Geyser sending it on
+         */
+        private final long averageLatency;
+        private final long maxLatency;
+        private final long upstreamPackets;
+
+        /**
+         * The CPU time of the whole process during the measurement, including the fake server
+         */
+        private final long cpuTime;
+        private final long time;
+        private final long heapUsed;
+
+        /**
+         * @return the CPU time in nanoseconds used per player per second
+         */
+        public long getCpuTimePerPlayer() {
+            if (cpuTime < 0 || players == 0 || time == 0)
+                return -1;
+            return (long) (cpuTime / (double) players / (time / 1_000_000_000D));
+        }
+
+        public long getHeapPerPlayer() {
+            return players == 0 ? 0 : heapUsed / players;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.loadtest;
+
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.packet.TextPacket;
+import lombok.NonNull;
+import org.geysermc.connector.configuration.BatchingInfo;
+import org.geysermc.connector.configuration.CompressionInfo;
+import org.geysermc.connector.network.capture.ReplayUpstreamSession;
+
+import java.net.InetSocketAddress;
+
+/**
+ * The upstream of a simulated player, measures how long the chat messages of the
+ * {@link FakeJavaServer} took from being sent by the server to being sent to the client
+ */
+public class LoadTestUpstreamSession extends ReplayUpstreamSession {
+    private long latencySamples;
+    private long totalLatency;
+    private long maxLatency;
+
+    public LoadTestUpstreamSession(InetSocketAddress address, BatchingInfo batching, CompressionInfo compression) {
+        super(address, batching, compression);
+    }
+
+    @Override
+    public void sendPacket(@NonNull BedrockPacket packet) {
+        super.sendPacket(packet);
+        if (packet instanceof TextPacket) {
+            recordLatency(((TextPacket) packet).getMessage());
+        }
+    }
+
+    private void recordLatency(String message) {
+        int index = message == null ? -1 : message.indexOf(FakeJavaServer.CHAT_PREFIX);
+        if (index == -1)
+            return;
+
+        int start = index + FakeJavaServer.CHAT_PREFIX.length();
+        int end = start;
+        while (end < message.length() && Character.isDigit(message.charAt(end))) {
+            end++;
+        }
+
+        try {
+            long latency = System.nanoTime() - Long.parseLong(message.substring(start, end));
+            synchronized (this) {
+                latencySamples++;
+                totalLatency += latency;
+                maxLatency = Math.max(maxLatency, latency);
+            }
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    public synchronized long getLatencySamples() {
+        return latencySamples;
+    }
+
+    /**
+     * @return the average latency in nanoseconds
+     */
+    public synchronized long getAverageLatency() {
+        return latencySamples == 0 ? 0 : totalLatency / latencySamples;
+    }
+
+    /**
+     * @return the highest latency in nanoseconds
+     */
+    public synchronized long getMaxLatency() {
+        return maxLatency;
+    }
+}
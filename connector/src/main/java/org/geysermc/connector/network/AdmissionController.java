@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network;
+
+import com.nukkitx.protocol.bedrock.packet.TextPacket;
+import lombok.AllArgsConstructor;
+import org.geysermc.connector.configuration.AdmissionInfo;
+import org.geysermc.connector.console.GeyserLogger;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.shared.SharedState;
+import org.geysermc.connector.utils.TokenBucket;
+
+import java.net.InetAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Decides when players may connect to the Java server.
+ *
+ * Logins are limited by a token bucket and by the amount of logins in progress, players that can't
+ * be let in yet wait in a queue and are shown their position. Connections are also limited per address.
+ * Logins can also be limited across every Geyser process through the shared state.
+ */
+public class AdmissionController {
+
+    private static final String LOGINS_NAMESPACE = "logins";
+
+    private final AdmissionInfo config;
+    private final SharedState sharedState;
+    private final TokenBucket loginRate;
+    private final long loginTimeout;
+
+    private final Map<InetAddress, AtomicInteger> connections = new ConcurrentHashMap<>();
+    private final Set<Ticket> loginsInProgress = ConcurrentHashMap.newKeySet();
+    private final Deque<PendingLogin> queue = new ArrayDeque<>();
+
+    public AdmissionController(AdmissionInfo config, SharedState sharedState, ScheduledExecutorService executor) {
+        this.config = config;
+        this.sharedState = sharedState;
+        this.loginRate = new TokenBucket(config.getLoginsPerSecond(), config.getLoginBurst());
+        this.loginTimeout = TimeUnit.SECONDS.toNanos(config.getLoginTimeout());
+
+        if (config.isEnabled()) {
+            executor.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * @param address the address of the Bedrock client
+     * @return if another connection from the address is allowed
+     */
+    public boolean canConnect(InetAddress address) {
+        if (!config.isEnabled() || config.getMaxConnectionsPerIp() <= 0)
+            return true;
+
+        AtomicInteger count = connections.get(address);
+        return count == null || count.get() < config.getMaxConnectionsPerIp();
+    }
+
+    public void onConnect(InetAddress address) {
+        connections.computeIfAbsent(address, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void onDisconnect(InetAddress address) {
+        connections.computeIfPresent(address, (key, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    /**
+     * @return if new players should be turned away before their login is handled
+     */
+    public synchronized boolean isQueueFull() {
+        return config.isEnabled() && config.getQueueSize() > 0 && queue.size() >= config.getQueueSize();
+    }
+
+    /**
+     * Runs the login of the player once it's their turn. The login has to release the ticket
+     * once the player is connected to the Java server or failed to connect.
+     *
+     * @param session the session of the player
+     * @param login the login, which may run on any thread
+     */
+    public void admit(GeyserSession session, Consumer<Ticket> login) {
+        if (!config.isEnabled()) {
+            login.accept(new Ticket());
+            return;
+        }
+
+        boolean full;
+        synchronized (this) {
+            // Logins run outside of the lock, as they may take a while to start
+            if (queue.isEmpty() && tryStartLogin()) {
+                full = false;
+            } else {
+                full = config.getQueueSize() > 0 && queue.size() >= config.getQueueSize();
+                if (!full) {
+                    queue.add(new PendingLogin(session, login));
+                    sendPosition(session, queue.size());
+                    return;
+                }
+            }
+        }
+
+        if (full) {
+            session.disconnect("The server is busy, please try again later");
+        } else {
+            startLogin(login);
+        }
+    }
+
+    /**
+     * Has to be called while synchronized
+     */
+    private boolean tryStartLogin() {
+        if (config.getMaxConcurrentLogins() > 0 && loginsInProgress.size() >= config.getMaxConcurrentLogins())
+            return false;
+
+        return loginRate.tryAcquire() && tryAcquireGlobalLogin();
+    }
+
+    /**
+     * Counts logins of every process in the current second, the counter expires once the second is over
+     */
+    private boolean tryAcquireGlobalLogin() {
+        if (config.getGlobalLoginsPerSecond() <= 0)
+            return true;
+
+        long second = System.currentTimeMillis() / 1000;
+        return sharedState.increment(LOGINS_NAMESPACE, Long.toString(second), 2000) <= config.getGlobalLoginsPerSecond();
+    }
+
+    private void startLogin(Consumer<Ticket> login) {
+        Ticket ticket = new Ticket();
+        loginsInProgress.add(ticket);
+        try {
+            login.accept(ticket);
+        } catch (Exception ex) {
+            ticket.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Lets in as many queued players as the limits allow
+     */
+    private void drain() {
+        List<Consumer<Ticket>> admitted = new ArrayList<>();
+        List<GeyserSession> gone = new ArrayList<>();
+        synchronized (this) {
+            while (!queue.isEmpty()) {
+                PendingLogin pending = queue.peek();
+                if (isGone(pending.session)) {
+                    queue.poll();
+                    gone.add(pending.session);
+                    continue;
+                }
+
+                if (!tryStartLogin())
+                    break;
+
+                queue.poll();
+                admitted.add(pending.login);
+            }
+        }
+
+        closeGone(gone);
+
+        for (Consumer<Ticket> login : admitted) {
+            try {
+                startLogin(login);
+            } catch (Exception ex) {
+                GeyserLogger.DEFAULT.severe("Could not start a queued login", ex);
+            }
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        for (Ticket ticket : loginsInProgress) {
+            if (now - ticket.created > loginTimeout && loginTimeout > 0) {
+                GeyserLogger.DEFAULT.debug("A login took longer than " + config.getLoginTimeout() + " seconds, letting in the next player");
+                ticket.release();
+            }
+        }
+
+        drain();
+
+        List<GeyserSession> gone = new ArrayList<>();
+        synchronized (this) {
+            int position = 1;
+            for (Iterator<PendingLogin> iterator = queue.iterator(); iterator.hasNext(); ) {
+                PendingLogin pending = iterator.next();
+                if (isGone(pending.session)) {
+                    iterator.remove();
+                    gone.add(pending.session);
+                    continue;
+                }
+                sendPosition(pending.session, position++);
+            }
+        }
+
+        closeGone(gone);
+    }
+
+    /**
+     * Players that left the queue never log in, so what they hold (like a backend reservation) is given back here
+     */
+    private static void closeGone(List<GeyserSession> gone) {
+        for (GeyserSession session : gone) {
+            session.disconnect("Left the queue");
+        }
+    }
+
+    private static boolean isGone(GeyserSession session) {
+        return session.isClosed() || session.getUpstream().isClosed();
+    }
+
+    private void sendPosition(GeyserSession session, int position) {
+        TextPacket textPacket = new TextPacket();
+        textPacket.setPlatformChatId("");
+        textPacket.setSourceName("");
+        textPacket.setXuid("");
+        textPacket.setType(TextPacket.Type.TIP);
+        textPacket.setNeedsTranslation(false);
+        textPacket.setMessage("You are in the queue, position " + position);
+
+        session.getUpstream().sendPacket(textPacket);
+    }
+
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getLoginsInProgress() {
+        return loginsInProgress.size();
+    }
+
+    /**
+     * A login in progress, which lets in the next player once released
+     */
+    public class Ticket {
+        private final long created = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Ticket() {
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true) && loginsInProgress.remove(this)) {
+                drain();
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class PendingLogin {
+        private final GeyserSession session;
+        private final Consumer<Ticket> login;
+    }
+}
@@ -29,35 +29,68 @@ import com.github.steveice10.mc.protocol.data.status.ServerStatusInfo;
 import com.nukkitx.protocol.bedrock.BedrockPong;
 import com.nukkitx.protocol.bedrock.BedrockServerEventHandler;
 import com.nukkitx.protocol.bedrock.BedrockServerSession;
+import lombok.AllArgsConstructor;
 import org.geysermc.api.Player;
 import org.geysermc.api.events.PingEvent;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.console.GeyserLogger;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.UpstreamSession;
 import org.geysermc.connector.utils.MessageUtils;
+import org.geysermc.connector.utils.RateLimiter;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
 public class ConnectorServerEventHandler implements BedrockServerEventHandler {
 
     private GeyserConnector connector;
 
+    private final RateLimiter<InetAddress> pingLimiter;
+    private volatile CachedPong cachedPong;
+
     public ConnectorServerEventHandler(GeyserConnector connector) {
         this.connector = connector;
+        this.pingLimiter = new RateLimiter<>(connector.getConfig().getPingRateLimit(), 1, TimeUnit.SECONDS);
+        connector.getGeneralThreadPool().scheduleAtFixedRate(pingLimiter::cleanUp, 10, 10, TimeUnit.SECONDS);
     }
 
     @Override
     public boolean onConnectionRequest(InetSocketAddress inetSocketAddress) {
-        GeyserLogger.DEFAULT.info(inetSocketAddress + " tried to connect!");
+        if (!connector.getAdmissionController().canConnect(inetSocketAddress.getAddress())) {
+            GeyserLogger.DEFAULT.debug(() -> inetSocketAddress + " has too many connections open!");
+            return false;
+        }
+
+        GeyserLogger.DEFAULT.debug(() -> inetSocketAddress + " tried to connect!");
         return true;
     }
 
     @Override
     public BedrockPong onQuery(InetSocketAddress inetSocketAddress) {
-        PingEvent pong = new PingEvent(inetSocketAddress);
-        GeyserLogger.DEFAULT.debug(inetSocketAddress + " has pinged you!");
+        if (!pingLimiter.tryAcquire(inetSocketAddress.getAddress()))
+            return null;
+
+        GeyserLogger.DEFAULT.debug(() -> inetSocketAddress + " has pinged you!");
         GeyserConfiguration config = connector.getConfig();
+        ServerStatusInfo serverInfo = config.isPingPassthrough() ? connector.getPassthroughPoller().getInfo() : null;
+
+        // Plugins can answer every address differently, so the pong can only be reused without them
+        if (connector.getPluginManager().hasListeners(PingEvent.class))
+            return createPong(inetSocketAddress, config, serverInfo);
+
+        CachedPong cached = cachedPong;
+        if (cached == null || cached.config != config || cached.serverInfo != serverInfo) {
+            cached = new CachedPong(config, serverInfo, createPong(inetSocketAddress, config, serverInfo));
+            cachedPong = cached;
+        }
+        return cached.pong;
+    }
+
+    private BedrockPong createPong(InetSocketAddress inetSocketAddress, GeyserConfiguration config, ServerStatusInfo serverInfo) {
+        PingEvent pong = new PingEvent(inetSocketAddress);
         pong.setEdition("MCPE");
         pong.setGameType("Default");
         pong.setNintendoLimited(false);
@@ -65,9 +98,7 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
         pong.setVersion("1.12.0");
 
         connector.getPluginManager().runEvent(pong);
-        if (connector.getConfig().isPingPassthrough()) {
-            ServerStatusInfo serverInfo = connector.getPassthroughThread().getInfo();
-
+        if (config.isPingPassthrough()) {
             if (serverInfo != null) {
                 pong.setMotd(MessageUtils.getBedrockMessage(serverInfo.getDescription()));
                 pong.setSubMotd(config.getBedrock().getMotd2());
@@ -96,27 +127,45 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
         c.setIpv4Port(config.getBedrock().getPort());
 
         return c;
-
     }
 
     @Override
     public void onSessionCreation(BedrockServerSession bedrockServerSession) {
         bedrockServerSession.setLogging(true);
-        bedrockServerSession.setPacketHandler(new UpstreamPacketHandler(connector, new GeyserSession(connector, bedrockServerSession)));
+        GeyserSession player = new GeyserSession(connector, bedrockServerSession);
+        bedrockServerSession.setPacketHandler(new UpstreamPacketHandler(connector, player));
+        connector.getAdmissionController().onConnect(bedrockServerSession.getAddress().getAddress());
         bedrockServerSession.addDisconnectHandler(disconnectReason -> {
+            connector.getAdmissionController().onDisconnect(bedrockServerSession.getAddress().getAddress());
             GeyserLogger.DEFAULT.info("Bedrock user with ip: " + bedrockServerSession.getAddress().getAddress() + " has disconnected for reason " + disconnectReason);
 
-            GeyserSession player = connector.getPlayers().get(bedrockServerSession.getAddress());
-            if (player != null) {
-                player.disconnect(disconnectReason.name());
-                connector.removePlayer(player);
-
-                player.getEntityCache().clear();
-                player.getInventoryCache().getInventories().clear();
-                player.getWindowCache().getWindows().clear();
-                player.getScoreboardCache().removeScoreboard();
-            }
+            UpstreamSession upstream = player.getUpstream();
+            String name = player.getAuthenticationData() != null ? player.getName() : bedrockServerSession.getAddress().toString();
+            GeyserLogger.DEFAULT.debug(name + " was sent " + upstream.getPacketsSent() + " packets in " + upstream.getBatchesSent()
+                    + " batches (" + String.format("%.2f", upstream.getAveragePacketsPerBatch()) + " packets per batch, "
+                    + TimeUnit.NANOSECONDS.toMillis(upstream.getSendCpuTime()) + "ms encoding, compressing and encrypting"
+                    + (upstream.getSampledBytes() > 0 ? ", " + String.format("%.2f", upstream.getCompressionRatio()) + " compression ratio and "
+                    + TimeUnit.NANOSECONDS.toMillis(upstream.getSampledCompressionTime()) + "ms compressing " + upstream.getSampledBytes() + " sampled bytes" : "") + ")");
+
+            // The session may not be registered (still logging in, or replaced by a newer one), but it has to be closed either way
+            player.disconnect(disconnectReason.name());
+            connector.removePlayer(player);
+
+            player.getEntityCache().clear();
+            player.getInventoryCache().getInventories().clear();
+            player.getWindowCache().getWindows().clear();
+            player.getScoreboardCache().removeScoreboard();
         });
         bedrockServerSession.setPacketCodec(GeyserConnector.BEDROCK_PACKET_CODEC);
     }
+
+    /**
+     * A pong together with the config and server status it was built from
+     */
+    @AllArgsConstructor
+    private static class CachedPong {
+        private final GeyserConfiguration config;
+        private final ServerStatusInfo serverInfo;
+        private final BedrockPong pong;
+    }
 }
\ No newline at end of file
@@ -48,7 +48,7 @@ public class LoggingPacketHandler implements BedrockPacketHandler {
     }
 
     boolean defaultHandler(BedrockPacket packet) {
-        connector.getLogger().debug("Handled packet: " + packet.getClass().getSimpleName());
+        connector.getLogger().debug(() -> "Handled packet: " + packet.getClass().getSimpleName());
         return false;
     }
 
@@ -33,6 +33,8 @@ import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.Registry;
 import org.geysermc.connector.utils.LoginEncryptionUtils;
 
+import java.util.Collections;
+
 public class UpstreamPacketHandler extends LoggingPacketHandler {
 
     public UpstreamPacketHandler(GeyserConnector connector, GeyserSession session) {
@@ -40,6 +42,9 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
     }
 
     private boolean translateAndDefault(BedrockPacket packet) {
+        if (session.getCapture() != null) {
+            session.getCapture().writeBedrock(packet);
+        }
         return Registry.BEDROCK.translate(packet.getClass(), packet, session);
     }
 
@@ -52,6 +57,12 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
             return true;
         }
 
+        // Turn players away before validating their login if they would have nowhere to wait
+        if (connector.getAdmissionController().isQueueFull()) {
+            session.getUpstream().disconnect("The server is busy, please try again later");
+            return true;
+        }
+
         LoginEncryptionUtils.encryptPlayerConnection(connector, session, loginPacket);
 
         PlayStatusPacket playStatus = new PlayStatusPacket();
@@ -67,7 +78,7 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
     public boolean handle(ResourcePackClientResponsePacket textPacket) {
         switch (textPacket.getStatus()) {
             case COMPLETED:
-                session.connect(connector.getRemoteServer());
+                session.connect(connector.getBackendBalancer().select(Collections.emptyList()));
                 connector.getLogger().info("Player connected with username " + session.getAuthenticationData().getName());
                 break;
             case HAVE_ALL_PACKS:
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.capture;
+
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.packetlib.Client;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.TcpSessionFactory;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.auth.BedrockAuthData;
+import org.geysermc.connector.network.translators.Registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Feeds a packet capture through the translators of a session without a client or remote server.
+ *
+ * Work the translators move off the receiving thread (chunks, scoreboard updates) runs on an
+ * executor owned by the replay, which is waited for before the clock stops. As that work and
+ * parallel chunk translation run on other threads, CPU time and allocations are counted for
+ * every thread of the process, so they're only meaningful on an otherwise idle instance.
+ */
+public class CaptureReplay {
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    public static Result replay(GeyserConnector connector, File file) throws IOException {
+        GeyserConfiguration config = connector.getConfig();
+        ReplayUpstreamSession upstream = new ReplayUpstreamSession(new InetSocketAddress("127.0.0.1", 19132),
+                config.getUpstreamBatching(), config.getUpstreamCompression());
+        GeyserSession session = new GeyserSession(connector, upstream);
+        session.setAuthenticationData(new BedrockAuthData("Replay", UUID.randomUUID(), "0"));
+        // Never connected, so packets sent to the remote server are dropped
+        session.setDownstream(new Client(config.getRemote().getAddress(), config.getRemote().getPort(), new MinecraftProtocol("Replay"), new TcpSessionFactory()));
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new DefaultThreadFactory("Geyser Replay"));
+        executor.prestartAllCoreThreads();
+        session.setExecutor(executor);
+
+        long javaPackets = 0;
+        long bedrockPackets = 0;
+        long untranslated = 0;
+        long capturedUpstreamPackets;
+        long captureTime;
+
+        Map<Long, ThreadUsage> usageStart = getThreadUsage();
+        long start = System.nanoTime();
+        try {
+            try (PacketCaptureReader reader = new PacketCaptureReader(file)) {
+                Object packet;
+                while ((packet = reader.next()) != null) {
+                    boolean translated;
+                    if (packet instanceof Packet) {
+                        javaPackets++;
+                        translated = Registry.JAVA.translate(((Packet) packet).getClass(), (Packet) packet, session);
+                    } else {
+                        bedrockPackets++;
+                        translated = Registry.BEDROCK.translate(((BedrockPacket) packet).getClass(), (BedrockPacket) packet, session);
+                    }
+
+                    if (!translated) {
+                        untranslated++;
+                    }
+                }
+                captureTime = reader.getTime();
+                capturedUpstreamPackets = reader.getSentBedrockPackets();
+            }
+            awaitIdle(executor);
+        } finally {
+            session.getScoreboardCache().removeScoreboard();
+            executor.shutdownNow();
+        }
+
+        long replayTime = System.nanoTime() - start;
+        ThreadUsage usage = ThreadUsage.since(usageStart, getThreadUsage());
+        return new Result(javaPackets, bedrockPackets, untranslated, upstream.getPacketsSent(), capturedUpstreamPackets,
+                captureTime, replayTime, usage.cpuTime, usage.allocatedBytes);
+    }
+
+    /**
+     * Waits until every task given to the executor ran, including the ones those tasks scheduled
+     */
+    private static void awaitIdle(ScheduledThreadPoolExecutor executor) throws IOException {
+        try {
+            while (executor.getCompletedTaskCount() < executor.getTaskCount()) {
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the replay to finish", ex);
+        }
+    }
+
+    /**
+     * @return the CPU time and allocated bytes of every live thread by id
+     */
+    private static Map<Long, ThreadUsage> getThreadUsage() {
+        long[] ids = THREAD_BEAN.getAllThreadIds();
+        long[] allocated = isAllocationTracked() ? ((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(ids) : new long[ids.length];
+        boolean cpuTime = isCpuTimeTracked();
+
+        Map<Long, ThreadUsage> usage = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            usage.put(ids[i], new ThreadUsage(cpuTime ? THREAD_BEAN.getThreadCpuTime(ids[i]) : 0, allocated[i]));
+        }
+        return usage;
+    }
+
+    private static boolean isCpuTimeTracked() {
+        return THREAD_BEAN.isThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled();
+    }
+
+    private static boolean isAllocationTracked() {
+        if (!(THREAD_BEAN instanceof com.sun.management.ThreadMXBean))
+            return false;
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+        return bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled();
+    }
+
+    @AllArgsConstructor
+    private static class ThreadUsage {
+        private static final ThreadUsage NONE = new ThreadUsage(0, 0);
+
+        private final long cpuTime;
+        private final long allocatedBytes;
+
+        /**
+         * Adds up what every thread used between both samples, threads that started in between count from zero.
+         * Threads that ended in between can't be measured anymore and are left out.
+         *
+         * @return the usage of all threads, with -1 for what the JVM doesn't track
+         */
+        static ThreadUsage since(Map<Long, ThreadUsage> start, Map<Long, ThreadUsage> end) {
+            long cpuTime = 0;
+            long allocatedBytes = 0;
+            for (Map.Entry<Long, ThreadUsage> entry : end.entrySet()) {
+                ThreadUsage before = start.getOrDefault(entry.getKey(), NONE);
+                ThreadUsage after = entry.getValue();
+                // A thread that ended while sampling reports -1
+                cpuTime += Math.max(0, after.cpuTime - before.cpuTime);
+                allocatedBytes += Math.max(0, after.allocatedBytes - before.allocatedBytes);
+            }
+            return new ThreadUsage(isCpuTimeTracked() ? cpuTime : -1, isAllocationTracked() ? allocatedBytes : -1);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final long javaPackets;
+        private final long bedrockPackets;
+        private final long untranslatedPackets;
+        private final long upstreamPackets;
+
+        /**
+         * The Bedrock packets sent to the client when the capture was recorded, 0 for captures
+         * from before those were recorded
+         */
+        private final long capturedUpstreamPackets;
+
+        /**
+         * The time in nanoseconds the capture took when it was recorded
+         */
+        private final long captureTime;
+        private final long replayTime;
+
+        /**
+         * The CPU time in nanoseconds of every thread, or a negative value if unknown
+         */
+        private final long cpuTime;
+
+        /**
+         * The bytes allocated by every thread, or a negative value if unknown
+         */
+        private final long allocatedBytes;
+
+        public double getPacketsPerSecond() {
+            return replayTime == 0 ? 0 : (javaPackets + bedrockPackets) * 1_000_000_000D / replayTime;
+        }
+    }
+}
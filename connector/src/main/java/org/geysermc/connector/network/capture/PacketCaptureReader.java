@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.capture;
+
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.io.ByteBufNetInput;
+import com.nukkitx.network.VarInts;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.utils.CompressionUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Constructor;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+/**
+ * Reads the packets from a file written by {@link PacketCaptureWriter}
+ */
+public class PacketCaptureReader implements Closeable {
+    private final RandomAccessFile file;
+    private final ByteBuf in;
+
+    private final Map<Integer, Constructor<? extends Packet>> javaClasses = new HashMap<>();
+    private long time;
+    private long sentBedrockPackets;
+
+    public PacketCaptureReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        FileChannel channel = this.file.getChannel();
+        this.in = Unpooled.wrappedBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+
+        if (in.readableBytes() < 5 || in.readInt() != PacketCaptureWriter.MAGIC)
+            throw new IOException(file + " is not a packet capture");
+
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > PacketCaptureWriter.VERSION)
+            throw new IOException("Unsupported packet capture version " + version);
+    }
+
+    /**
+     * @return the next Java {@link Packet} or {@link com.nukkitx.protocol.bedrock.BedrockPacket}, or null at the end of the capture
+     */
+    public Object next() throws IOException {
+        while (in.isReadable()) {
+            byte type = in.readByte();
+            switch (type) {
+                case PacketCaptureWriter.CLASS_RECORD:
+                    readClass();
+                    break;
+                case PacketCaptureWriter.JAVA_RECORD:
+                    time += VarInts.readUnsignedLong(in);
+                    return readJava();
+                case PacketCaptureWriter.BEDROCK_RECORD:
+                    time += VarInts.readUnsignedLong(in);
+                    return readBedrock();
+                case PacketCaptureWriter.SENT_BEDROCK_RECORD:
+                    // The output of the translators, only counted so a replay can be compared against it
+                    time += VarInts.readUnsignedLong(in);
+                    skipBody();
+                    sentBedrockPackets++;
+                    break;
+                default:
+                    throw new IOException("Unknown record type " + type);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the nanoseconds between the start of the capture and the last packet read
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the Bedrock packets that were sent to the client up to the last packet read
+     */
+    public long getSentBedrockPackets() {
+        return sentBedrockPackets;
+    }
+
+    private void readClass() throws IOException {
+        int id = (int) VarInts.readUnsignedInt(in);
+        byte[] name = new byte[(int) VarInts.readUnsignedInt(in)];
+        in.readBytes(name);
+
+        try {
+            Constructor<? extends Packet> constructor = Class.forName(new String(name, StandardCharsets.UTF_8))
+                    .asSubclass(Packet.class).getDeclaredConstructor();
+            constructor.setAccessible(true);
+            javaClasses.put(id, constructor);
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            throw new IOException("Unknown packet class in capture", ex);
+        }
+    }
+
+    private Packet readJava() throws IOException {
+        Constructor<? extends Packet> constructor = javaClasses.get((int) VarInts.readUnsignedInt(in));
+        if (constructor == null)
+            throw new IOException("Java packet refers to an undefined class");
+
+        ByteBuf body = readBody();
+        try {
+            Packet packet = constructor.newInstance();
+            packet.read(new ByteBufNetInput(body));
+            return packet;
+        } catch (ReflectiveOperationException ex) {
+            throw new IOException("Could not create " + constructor.getDeclaringClass().getSimpleName(), ex);
+        } finally {
+            body.release();
+        }
+    }
+
+    private Object readBedrock() throws IOException {
+        ByteBuf body = readBody();
+        try {
+            return GeyserConnector.BEDROCK_PACKET_CODEC.tryDecode(body);
+        } finally {
+            body.release();
+        }
+    }
+
+    private ByteBuf readBody() throws IOException {
+        int length = (int) VarInts.readUnsignedInt(in);
+        int storedLength = (int) VarInts.readUnsignedInt(in);
+        if (storedLength == length)
+            return in.readRetainedSlice(length);
+
+        byte[] stored = new byte[storedLength];
+        in.readBytes(stored);
+        try {
+            return Unpooled.wrappedBuffer(CompressionUtils.inflate(stored, length));
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt packet in capture", ex);
+        }
+    }
+
+    private void skipBody() {
+        VarInts.readUnsignedInt(in);
+        in.skipBytes((int) VarInts.readUnsignedInt(in));
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.release();
+        file.close();
+    }
+}
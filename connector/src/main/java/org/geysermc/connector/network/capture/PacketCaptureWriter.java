@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.capture;
+
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.io.ByteBufNetOutput;
+import com.nukkitx.network.VarInts;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.internal.PlatformDependent;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.console.GeyserLogger;
+import org.geysermc.connector.utils.CompressionUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the packets of a session to a memory mapped file.
+ *
+ * The file starts with {@link #MAGIC} and {@link #VERSION}, followed by records of a type byte,
+ * the nanoseconds since the previous record as a VarLong and a length prefixed body.
+ * Java packets refer to their class by an index that is defined by a class record the first time
+ * the class is written, Bedrock packets received from and sent to the client are stored as encoded by the codec.
+ */
+public class PacketCaptureWriter implements Closeable {
+    static final int MAGIC = 0x47434150; // GCAP
+    static final int VERSION = 2;
+
+    static final byte CLASS_RECORD = 0;
+    static final byte JAVA_RECORD = 1;
+    static final byte BEDROCK_RECORD = 2;
+    /**
+     * Added in version 2
+     */
+    static final byte SENT_BEDROCK_RECORD = 3;
+
+    private static final int REGION_SIZE = 4 * 1024 * 1024;
+    private static final int MIN_COMPRESS_SIZE = 64;
+    private static final int COMPRESSION_LEVEL = 1;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final boolean compress;
+
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    private final Map<Class<?>, Integer> classIds = new HashMap<>();
+    private final ByteBuf payload = Unpooled.buffer();
+    private final ByteBuf record = Unpooled.buffer();
+    private long lastTime = System.nanoTime();
+    private boolean closed;
+
+    public PacketCaptureWriter(File file, boolean compress) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        this.compress = compress;
+
+        record.writeInt(MAGIC);
+        record.writeByte(VERSION);
+        flushRecord();
+    }
+
+    /**
+     * @param packet the Java packet received from the remote server
+     */
+    public synchronized void writeJava(Packet packet) {
+        if (closed)
+            return;
+
+        payload.clear();
+        try {
+            packet.write(new ByteBufNetOutput(payload));
+        } catch (Exception ex) {
+            GeyserLogger.DEFAULT.debug("Could not capture " + packet.getClass().getSimpleName() + ": " + ex);
+            return;
+        }
+
+        Integer id = classIds.get(packet.getClass());
+        if (id == null) {
+            id = classIds.size();
+            classIds.put(packet.getClass(), id);
+
+            byte[] name = packet.getClass().getName().getBytes(StandardCharsets.UTF_8);
+            record.clear();
+            record.writeByte(CLASS_RECORD);
+            VarInts.writeUnsignedInt(record, id);
+            VarInts.writeUnsignedInt(record, name.length);
+            record.writeBytes(name);
+            writeRecord();
+            if (closed)
+                return;
+        }
+
+        record.clear();
+        record.writeByte(JAVA_RECORD);
+        writeTime();
+        VarInts.writeUnsignedInt(record, id);
+        writeBody();
+        writeRecord();
+    }
+
+    /**
+     * @param packet the Bedrock packet received from the client
+     */
+    public void writeBedrock(BedrockPacket packet) {
+        writeBedrock(BEDROCK_RECORD, packet);
+    }
+
+    /**
+     * @param packet the Bedrock packet sent to the client
+     */
+    public void writeSentBedrock(BedrockPacket packet) {
+        writeBedrock(SENT_BEDROCK_RECORD, packet);
+    }
+
+    private synchronized void writeBedrock(byte type, BedrockPacket packet) {
+        if (closed)
+            return;
+
+        ByteBuf encoded;
+        try {
+            encoded = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(packet);
+        } catch (Exception ex) {
+            GeyserLogger.DEFAULT.debug("Could not capture " + packet.getClass().getSimpleName() + ": " + ex);
+            return;
+        }
+
+        try {
+            payload.clear();
+            payload.writeBytes(encoded);
+        } finally {
+            encoded.release();
+        }
+
+        record.clear();
+        record.writeByte(type);
+        writeTime();
+        writeBody();
+        writeRecord();
+    }
+
+    private void writeTime() {
+        long now = System.nanoTime();
+        VarInts.writeUnsignedLong(record, now - lastTime);
+        lastTime = now;
+    }
+
+    /**
+     * Writes the payload as its length, the stored length and the stored bytes.
+     * The stored bytes are deflated if that makes them smaller.
+     */
+    private void writeBody() {
+        int length = payload.readableBytes();
+        VarInts.writeUnsignedInt(record, length);
+
+        if (compress && length >= MIN_COMPRESS_SIZE) {
+            byte[] raw = new byte[length];
+            payload.readBytes(raw);
+            byte[] deflated = CompressionUtils.deflate(raw, COMPRESSION_LEVEL);
+
+            byte[] stored = deflated.length < length ? deflated : raw;
+            VarInts.writeUnsignedInt(record, stored.length);
+            record.writeBytes(stored);
+        } else {
+            VarInts.writeUnsignedInt(record, length);
+            record.writeBytes(payload);
+        }
+    }
+
+    private void writeRecord() {
+        try {
+            flushRecord();
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.error("Could not write to the packet capture, stopping it", ex);
+            close();
+        }
+    }
+
+    private void flushRecord() throws IOException {
+        int size = record.readableBytes();
+        if (region == null || region.remaining() < size) {
+            if (region != null) {
+                regionStart += region.position();
+                unmap(region);
+            }
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_SIZE, size));
+        }
+        region.put(record.nioBuffer());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            long size = regionStart + (region != null ? region.position() : 0);
+            if (region != null) {
+                unmap(region);
+                region = null;
+            }
+            // The last region was mapped past the end of the data, which can only be cut off once it's unmapped
+            channel.truncate(size);
+            file.close();
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.error("Could not close the packet capture", ex);
+        }
+        payload.release();
+        record.release();
+    }
+
+    /**
+     * Writes the region back to the file and unmaps it right away, instead of whenever it's garbage collected
+     */
+    private static void unmap(MappedByteBuffer region) {
+        region.force();
+        PlatformDependent.freeDirectBuffer(region);
+    }
+}
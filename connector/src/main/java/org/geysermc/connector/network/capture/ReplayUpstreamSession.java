@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.capture;
+
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import lombok.NonNull;
+import org.geysermc.connector.configuration.BatchingInfo;
+import org.geysermc.connector.configuration.CompressionInfo;
+import org.geysermc.connector.network.session.UpstreamSession;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An upstream without a client, it only counts the packets that would have been sent
+ */
+public class ReplayUpstreamSession extends UpstreamSession {
+    private final InetSocketAddress address;
+    private final AtomicLong sentPackets = new AtomicLong();
+
+    public ReplayUpstreamSession(InetSocketAddress address, BatchingInfo batching, CompressionInfo compression) {
+        super(null, batching, compression);
+        this.address = address;
+    }
+
+    @Override
+    public void startBatching(ScheduledExecutorService executor) {
+    }
+
+    @Override
+    public void sendPacket(@NonNull BedrockPacket packet) {
+        sentPackets.incrementAndGet();
+    }
+
+    @Override
+    public void sendPacketImmediately(@NonNull BedrockPacket packet) {
+        sentPackets.incrementAndGet();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void disconnect(String reason) {
+    }
+
+    @Override
+    public boolean isClosed() {
+        return false;
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    @Override
+    public long getPacketsSent() {
+        return sentPackets.get();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.remote;
+
+import io.netty.channel.EventLoopGroup;
+import lombok.Getter;
+import org.geysermc.api.RemoteServer;
+import org.geysermc.connector.configuration.BackendInfo;
+import org.geysermc.connector.configuration.RemoteConfiguration;
+import org.geysermc.connector.console.GeyserLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads players over identical Java servers.
+ *
+ * Every server is polled with a status request when there's more than one, servers that don't
+ * answer are skipped until they do again. Picking a server reserves a connection on it, which
+ * has to be released once the player leaves or couldn't connect.
+ */
+public class BackendBalancer {
+
+    private final List<Backend> backends;
+    private final boolean weighted;
+
+    /**
+     * @param config the remote server configuration
+     * @param eventLoopGroup the event loop group the status of the servers is polled on
+     */
+    public BackendBalancer(RemoteConfiguration config, EventLoopGroup eventLoopGroup) {
+        List<Backend> backends = new ArrayList<>();
+        if (config.getBackends() == null || config.getBackends().isEmpty()) {
+            backends.add(new Backend(config.getAddress(), config.getPort(), 1));
+        } else {
+            for (BackendInfo info : config.getBackends()) {
+                backends.add(new Backend(info.getAddress(), info.getPort(), Math.max(1, info.getWeight())));
+            }
+        }
+        this.backends = Collections.unmodifiableList(backends);
+        this.weighted = "weighted".equalsIgnoreCase(config.getBalancing());
+
+        // A single server is used regardless of its status, so there's nothing to check
+        if (backends.size() > 1) {
+            long interval = TimeUnit.SECONDS.toMillis(Math.max(1, config.getHealthCheckInterval()));
+            for (Backend backend : backends) {
+                backend.healthCheck = new StatusPoller(eventLoopGroup, backend.getAddress(), backend.getPort(), interval);
+                backend.healthCheck.start();
+            }
+        }
+    }
+
+    /**
+     * Picks a server and reserves a connection on it
+     *
+     * @param exclude the servers that shouldn't be picked, for example because connecting to them failed
+     * @return the server, or null if every server is excluded
+     */
+    public synchronized Backend select(Collection<? extends RemoteServer> exclude) {
+        List<Backend> candidates = new ArrayList<>(backends.size());
+        for (Backend backend : backends) {
+            if (!exclude.contains(backend) && backend.isHealthy()) {
+                candidates.add(backend);
+            }
+        }
+
+        // The status may be out of date, trying a server that seems down beats not trying at all
+        if (candidates.isEmpty()) {
+            for (Backend backend : backends) {
+                if (!exclude.contains(backend)) {
+                    candidates.add(backend);
+                }
+            }
+        }
+
+        if (candidates.isEmpty())
+            return null;
+
+        Backend selected = weighted ? selectWeighted(candidates) : selectLeastConnections(candidates);
+        selected.connections.incrementAndGet();
+        GeyserLogger.DEFAULT.debug(() -> "Selected " + selected.getAddress() + ":" + selected.getPort()
+                + " (" + selected.getConnections() + " connections)");
+        return selected;
+    }
+
+    private Backend selectLeastConnections(List<Backend> candidates) {
+        Backend selected = null;
+        double selectedLoad = Double.MAX_VALUE;
+        for (Backend backend : candidates) {
+            double load = (double) backend.connections.get() / backend.weight;
+            if (load < selectedLoad) {
+                selected = backend;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Smooth weighted round robin, which spreads picks of a server evenly instead of in bursts
+     */
+    private Backend selectWeighted(List<Backend> candidates) {
+        int totalWeight = 0;
+        Backend selected = null;
+        for (Backend backend : candidates) {
+            backend.currentWeight += backend.weight;
+            totalWeight += backend.weight;
+            if (selected == null || backend.currentWeight > selected.currentWeight) {
+                selected = backend;
+            }
+        }
+        selected.currentWeight -= totalWeight;
+        return selected;
+    }
+
+    /**
+     * Releases a connection reserved by {@link #select(Collection)}
+     *
+     * @param backend the server the connection was reserved on
+     */
+    public void release(Backend backend) {
+        backend.connections.decrementAndGet();
+    }
+
+    public List<Backend> getBackends() {
+        return backends;
+    }
+
+    public void stop() {
+        for (Backend backend : backends) {
+            if (backend.healthCheck != null) {
+                backend.healthCheck.stop();
+            }
+        }
+    }
+
+    public static class Backend extends RemoteJavaServer {
+        @Getter
+        private final int weight;
+        private final AtomicInteger connections = new AtomicInteger();
+        private StatusPoller healthCheck;
+        private int currentWeight;
+
+        private Backend(String address, int port, int weight) {
+            super(address, port);
+            this.weight = weight;
+        }
+
+        public boolean isHealthy() {
+            return healthCheck == null || healthCheck.isHealthy();
+        }
+
+        public int getConnections() {
+            return connections.get();
+        }
+    }
+}
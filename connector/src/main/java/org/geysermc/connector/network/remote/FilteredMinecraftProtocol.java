@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.remote;
+
+import com.github.steveice10.mc.auth.exception.request.RequestException;
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.data.SubProtocol;
+import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.io.NetInput;
+import com.github.steveice10.packetlib.io.NetOutput;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.packet.PacketHeader;
+import org.geysermc.connector.network.translators.Registry;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link MinecraftProtocol} which does not decode game packets that Geyser has no
+ * translator for. Their ids are registered to {@link SkippedPacket}, which only
+ * consumes the packet body, and the skipped packets and bytes are counted per id.
+ */
+public class FilteredMinecraftProtocol extends MinecraftProtocol {
+
+    private static final int MAX_PACKET_ID = 0xFF;
+
+    private static final AtomicLongArray SKIPPED_PACKETS = new AtomicLongArray(MAX_PACKET_ID + 1);
+    private static final AtomicLongArray SKIPPED_BYTES = new AtomicLongArray(MAX_PACKET_ID + 1);
+    private static final String[] PACKET_NAMES = new String[MAX_PACKET_ID + 1];
+
+    /**
+     * The id of the packet currently being decoded on this thread, held in a
+     * single element array so the id is not boxed for every packet
+     */
+    private static final ThreadLocal<int[]> CURRENT_PACKET_ID = ThreadLocal.withInitial(() -> new int[] { -1 });
+
+    private static volatile SkippedIds skippedIds;
+
+    private final PacketHeader header = new IdTrackingPacketHeader(super.getPacketHeader());
+
+    /**
+     * The simple class names of packets without a translator that are still decoded, because
+     * MCProtocolLib or a plugin handles them
+     */
+    private final Set<String> alwaysDecoded;
+
+    public FilteredMinecraftProtocol(String username, Collection<String> alwaysDecoded) {
+        super(username);
+        this.alwaysDecoded = new HashSet<>(alwaysDecoded);
+    }
+
+    public FilteredMinecraftProtocol(String username, String password, Collection<String> alwaysDecoded) throws RequestException {
+        super(username, password);
+        this.alwaysDecoded = new HashSet<>(alwaysDecoded);
+    }
+
+    @Override
+    public PacketHeader getPacketHeader() {
+        return header;
+    }
+
+    @Override
+    public void setSubProtocol(SubProtocol subProtocol, boolean client, Session session) {
+        super.setSubProtocol(subProtocol, client, session);
+
+        if (client && subProtocol == SubProtocol.GAME) {
+            for (int id : getSkippedIds()) {
+                registerIncoming(id, SkippedPacket.class);
+            }
+        }
+    }
+
+    /**
+     * Finds the ids of all game packets without a translator by probing the ids registered
+     * for the game state. The result is kept until a translator is registered or the
+     * packets that are always decoded change.
+     */
+    private int[] getSkippedIds() {
+        int version = Registry.JAVA.getVersion();
+        SkippedIds cached = skippedIds;
+        if (cached != null && cached.version == version && cached.alwaysDecoded.equals(alwaysDecoded))
+            return cached.ids;
+
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id <= MAX_PACKET_ID; id++) {
+            Packet packet;
+            try {
+                packet = createIncomingPacket(id);
+            } catch (RuntimeException e) {
+                continue; // No packet registered with this id
+            }
+
+            Class<? extends Packet> clazz = packet.getClass();
+            if (alwaysDecoded.contains(clazz.getSimpleName()) || Registry.JAVA.isRegistered(clazz))
+                continue;
+
+            PACKET_NAMES[id] = clazz.getSimpleName();
+            ids.add(id);
+        }
+
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        skippedIds = new SkippedIds(version, alwaysDecoded, result);
+        return result;
+    }
+
+    static void recordSkipped(int id, int length) {
+        if (id < 0 || id > MAX_PACKET_ID)
+            return;
+
+        SKIPPED_PACKETS.incrementAndGet(id);
+        SKIPPED_BYTES.addAndGet(id, length);
+    }
+
+    static int getCurrentPacketId() {
+        return CURRENT_PACKET_ID.get()[0];
+    }
+
+    public static long getSkippedPackets(int id) {
+        return SKIPPED_PACKETS.get(id);
+    }
+
+    public static long getSkippedBytes(int id) {
+        return SKIPPED_BYTES.get(id);
+    }
+
+    /**
+     * @param id the packet id
+     * @return the simple class name of the skipped packet, or null if the id is not skipped
+     */
+    public static String getPacketName(int id) {
+        return PACKET_NAMES[id];
+    }
+
+    public static int getMaxPacketId() {
+        return MAX_PACKET_ID;
+    }
+
+    private static class SkippedIds {
+
+        private final int version;
+        private final Set<String> alwaysDecoded;
+        private final int[] ids;
+
+        SkippedIds(int version, Set<String> alwaysDecoded, int[] ids) {
+            this.version = version;
+            this.alwaysDecoded = alwaysDecoded;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Delegates to the protocol's own header and remembers the last id read, so
+     * {@link SkippedPacket} knows which packet it replaced.
+     */
+    private static class IdTrackingPacketHeader implements PacketHeader {
+
+        private final PacketHeader delegate;
+
+        IdTrackingPacketHeader(PacketHeader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isLengthVariable() {
+            return delegate.isLengthVariable();
+        }
+
+        @Override
+        public int getLengthSize() {
+            return delegate.getLengthSize();
+        }
+
+        @Override
+        public int getLengthSize(int length) {
+            return delegate.getLengthSize(length);
+        }
+
+        @Override
+        public int readLength(NetInput in, int available) throws IOException {
+            return delegate.readLength(in, available);
+        }
+
+        @Override
+        public void writeLength(NetOutput out, int length) throws IOException {
+            delegate.writeLength(out, length);
+        }
+
+        @Override
+        public int readPacketId(NetInput in) throws IOException {
+            int id = delegate.readPacketId(in);
+            CURRENT_PACKET_ID.get()[0] = id;
+            return id;
+        }
+
+        @Override
+        public void writePacketId(NetOutput out, int packetId) throws IOException {
+            delegate.writePacketId(out, packetId);
+        }
+    }
+}
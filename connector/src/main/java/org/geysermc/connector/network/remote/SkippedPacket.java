@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.remote;
+
+import com.github.steveice10.packetlib.io.NetInput;
+import com.github.steveice10.packetlib.io.NetOutput;
+import com.github.steveice10.packetlib.packet.Packet;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Stands in for a Java packet that Geyser would not translate. Reading it skips
+ * the packet body instead of decoding it.
+ */
+@Getter
+public class SkippedPacket implements Packet {
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[4096]);
+
+    private int id;
+    private int length;
+
+    public SkippedPacket() {
+    }
+
+    @Override
+    public void read(NetInput in) throws IOException {
+        this.id = FilteredMinecraftProtocol.getCurrentPacketId();
+
+        byte[] scratch = SCRATCH.get();
+        int remaining;
+        while ((remaining = in.available()) > 0) {
+            int read = in.readBytes(scratch, 0, Math.min(remaining, scratch.length));
+            if (read <= 0)
+                break;
+
+            length += read;
+        }
+
+        FilteredMinecraftProtocol.recordSkipped(id, length);
+    }
+
+    @Override
+    public void write(NetOutput out) throws IOException {
+        // Only registered as an incoming packet, so the body is never written back
+    }
+
+    @Override
+    public boolean isPriority() {
+        return false;
+    }
+}
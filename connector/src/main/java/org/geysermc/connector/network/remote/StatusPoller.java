@@ -0,0 +1,256 @@
+package org.geysermc.connector.network.remote;
+
+import com.github.steveice10.mc.protocol.MinecraftConstants;
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.data.SubProtocol;
+import com.github.steveice10.mc.protocol.data.handshake.HandshakeIntent;
+import com.github.steveice10.mc.protocol.data.status.ServerStatusInfo;
+import com.github.steveice10.mc.protocol.packet.handshake.client.HandshakePacket;
+import com.github.steveice10.mc.protocol.packet.status.client.StatusQueryPacket;
+import com.github.steveice10.mc.protocol.packet.status.server.StatusResponsePacket;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.io.ByteBufNetInput;
+import com.github.steveice10.packetlib.tcp.io.ByteBufNetOutput;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.geysermc.connector.console.GeyserLogger;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Polls the status of a Java server, for ping passthrough and to check the health of balanced servers.
+ *
+ * Polls run on an event loop shared by every poller instead of starting a new packetlib client, back off
+ * with jitter while the server can't be reached, and the last known status is kept until it gets too old.
+ */
+public class StatusPoller {
+    private static final int TIMEOUT = 5000;
+    private static final long MAX_BACKOFF = TimeUnit.MINUTES.toMillis(1);
+    /**
+     * The amount of intervals a status may be used for after it was received
+     */
+    private static final int STALE_INTERVALS = 10;
+
+    private final String address;
+    private final int port;
+    private final long interval;
+
+    private final EventLoop eventLoop;
+    private final StatusProtocol protocol = new StatusProtocol();
+
+    private volatile ServerStatusInfo info;
+    private volatile long lastUpdate;
+    private volatile int failures;
+    private volatile boolean running;
+    private volatile ScheduledFuture<?> nextPoll;
+
+    /**
+     * @param eventLoopGroup the event loop group the polls run on, which isn't shut down by {@link #stop()}
+     * @param address the address of the remote server
+     * @param port the port of the remote server
+     * @param interval the time in milliseconds between two polls
+     */
+    public StatusPoller(EventLoopGroup eventLoopGroup, String address, int port, long interval) {
+        this.eventLoop = eventLoopGroup.next();
+        this.address = address;
+        this.port = port;
+        this.interval = Math.max(1, interval);
+    }
+
+    public void start() {
+        if (running)
+            return;
+
+        running = true;
+        eventLoop.execute(this::poll);
+    }
+
+    public void stop() {
+        running = false;
+        ScheduledFuture<?> nextPoll = this.nextPoll;
+        if (nextPoll != null) {
+            nextPoll.cancel(false);
+        }
+    }
+
+    /**
+     * @return the last status of the remote server, or null if none was received recently enough
+     */
+    public ServerStatusInfo getInfo() {
+        ServerStatusInfo info = this.info;
+        if (info != null && System.currentTimeMillis() - lastUpdate > interval * STALE_INTERVALS) {
+            return null;
+        }
+        return info;
+    }
+
+    /**
+     * @return false if the last poll of the remote server failed
+     */
+    public boolean isHealthy() {
+        return failures == 0;
+    }
+
+    private void poll() {
+        if (!running)
+            return;
+
+        AtomicBoolean done = new AtomicBoolean();
+        new Bootstrap()
+                .group(eventLoop)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        channel.pipeline()
+                                .addLast("timeout", new ReadTimeoutHandler(TIMEOUT, TimeUnit.MILLISECONDS))
+                                .addLast("status", new StatusHandler(done));
+                    }
+                })
+                .connect(address, port)
+                .addListener(future -> {
+                    if (!future.isSuccess()) {
+                        onFailure(done, future.cause());
+                    }
+                });
+    }
+
+    private void onStatus(AtomicBoolean done, ServerStatusInfo info) {
+        if (!done.compareAndSet(false, true))
+            return;
+
+        this.info = info;
+        this.lastUpdate = System.currentTimeMillis();
+        this.failures = 0;
+        scheduleNext(interval);
+    }
+
+    private void onFailure(AtomicBoolean done, Throwable cause) {
+        if (!done.compareAndSet(false, true))
+            return;
+
+        if (failures++ == 0) {
+            GeyserLogger.DEFAULT.debug("Could not get the status of " + address + ":" + port + ": " + cause);
+        }
+
+        // Back off exponentially, with jitter so many instances don't retry in lockstep
+        long backoff = Math.min(MAX_BACKOFF, interval << Math.min(failures, 16));
+        long jitter = ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+        scheduleNext(backoff - backoff / 8 + jitter);
+    }
+
+    private void scheduleNext(long delay) {
+        if (running) {
+            nextPoll = eventLoop.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the handshake and status query once connected and waits for the response,
+     * packets are framed with a VarInt length as there's no compression or encryption in the status state.
+     */
+    private class StatusHandler extends ByteToMessageDecoder {
+        private final AtomicBoolean done;
+
+        private StatusHandler(AtomicBoolean done) {
+            this.done = done;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            writePacket(ctx, 0x00, new HandshakePacket(MinecraftConstants.PROTOCOL_VERSION, address, port, HandshakeIntent.STATUS));
+            writePacket(ctx, 0x00, new StatusQueryPacket());
+            ctx.flush();
+            super.channelActive(ctx);
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+            in.markReaderIndex();
+            int length = readVarInt(in);
+            if (length == -1 || in.readableBytes() < length) {
+                in.resetReaderIndex();
+                return;
+            }
+
+            ByteBufNetInput input = new ByteBufNetInput(in.readSlice(length));
+            Packet packet = protocol.createIncomingPacket(input.readVarInt());
+            if (packet instanceof StatusResponsePacket) {
+                packet.read(input);
+                onStatus(done, ((StatusResponsePacket) packet).getInfo());
+                ctx.close();
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            onFailure(done, new IOException("Connection closed before the status was received"));
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            onFailure(done, cause);
+            ctx.close();
+        }
+
+        private void writePacket(ChannelHandlerContext ctx, int id, Packet packet) throws IOException {
+            ByteBuf body = ctx.alloc().buffer();
+            try {
+                ByteBufNetOutput output = new ByteBufNetOutput(body);
+                output.writeVarInt(id);
+                packet.write(output);
+
+                ByteBuf frame = ctx.alloc().buffer(body.readableBytes() + 5);
+                new ByteBufNetOutput(frame).writeVarInt(body.readableBytes());
+                frame.writeBytes(body);
+                ctx.write(frame);
+            } finally {
+                body.release();
+            }
+        }
+
+        /**
+         * @return the VarInt, or -1 if it isn't fully readable yet
+         */
+        private int readVarInt(ByteBuf in) throws IOException {
+            int value = 0;
+            for (int i = 0; i < 5; i++) {
+                if (!in.isReadable())
+                    return -1;
+
+                byte b = in.readByte();
+                value |= (b & 0x7F) << (i * 7);
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IOException("VarInt too big");
+        }
+    }
+
+    /**
+     * Only used to create the status response packet, the packets are registered without a session
+     */
+    private static class StatusProtocol extends MinecraftProtocol {
+        private StatusProtocol() {
+            super(SubProtocol.STATUS);
+            setSubProtocol(SubProtocol.STATUS, true, null);
+        }
+    }
+}
@@ -40,13 +40,10 @@ import com.github.steveice10.packetlib.tcp.TcpSessionFactory;
 import com.nukkitx.math.vector.Vector2f;
 import com.nukkitx.math.vector.Vector2i;
 import com.nukkitx.math.vector.Vector3f;
-import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.BedrockServerSession;
-import com.nukkitx.protocol.bedrock.data.GamePublishSetting;
-import com.nukkitx.protocol.bedrock.data.GameRule;
 import com.nukkitx.protocol.bedrock.packet.PlayStatusPacket;
-import com.nukkitx.protocol.bedrock.packet.StartGamePacket;
 import com.nukkitx.protocol.bedrock.packet.TextPacket;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.geysermc.api.Player;
@@ -54,14 +51,27 @@ import org.geysermc.api.RemoteServer;
 import org.geysermc.api.session.AuthData;
 import org.geysermc.api.window.FormWindow;
 import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.configuration.CaptureInfo;
 import org.geysermc.connector.entity.PlayerEntity;
 import org.geysermc.connector.inventory.PlayerInventory;
+import org.geysermc.connector.network.AdmissionController;
+import org.geysermc.connector.network.capture.PacketCaptureWriter;
+import org.geysermc.connector.network.remote.BackendBalancer;
+import org.geysermc.connector.network.remote.FilteredMinecraftProtocol;
+import org.geysermc.connector.network.remote.SkippedPacket;
 import org.geysermc.connector.network.session.cache.*;
 import org.geysermc.connector.network.translators.Registry;
-import org.geysermc.connector.utils.Toolbox;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Getter
 public class GeyserSession implements Player {
@@ -69,6 +79,7 @@ public class GeyserSession implements Player {
     private final GeyserConnector connector;
     private final UpstreamSession upstream;
     private RemoteServer remoteServer;
+    @Setter
     private Client downstream;
     private AuthData authenticationData;
 
@@ -83,6 +94,16 @@ public class GeyserSession implements Player {
 
     private DataCache<Packet> javaPacketCache;
 
+    private PacketCaptureWriter capture;
+
+    /**
+     * Runs the work translators move off the thread that received the packet,
+     * the general thread pool unless set otherwise
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter
+    private ScheduledExecutorService executor;
+
     @Setter
     private Vector2i lastChunkPosition = null;
     @Setter
@@ -94,13 +115,40 @@ public class GeyserSession implements Player {
     @Setter
     private boolean spawned;
     private boolean closed;
+    @Getter(AccessLevel.NONE)
+    private volatile AdmissionController.Ticket loginTicket;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<BackendBalancer.Backend> backend = new AtomicReference<>();
 
     @Setter
     private GameMode gameMode = GameMode.SURVIVAL;
 
     public GeyserSession(GeyserConnector connector, BedrockServerSession bedrockServerSession) {
+        this(connector, new UpstreamSession(bedrockServerSession, connector.getConfig().getUpstreamBatching(), connector.getConfig().getUpstreamCompression()));
+        this.upstream.startBatching(connector.getGeneralThreadPool());
+
+        CaptureInfo captureInfo = connector.getConfig().getCapture();
+        if (captureInfo.isEnabled()) {
+            File directory = new File(captureInfo.getDirectory());
+            directory.mkdirs();
+            InetSocketAddress address = bedrockServerSession.getAddress();
+            File file = new File(directory, System.currentTimeMillis() + "-" + address.getAddress().getHostAddress().replace(':', '_') + "-" + address.getPort() + ".gcap");
+            try {
+                this.capture = new PacketCaptureWriter(file, captureInfo.isCompress());
+                this.upstream.setCapture(capture);
+            } catch (IOException ex) {
+                connector.getLogger().error("Could not start packet capture " + file, ex);
+            }
+        }
+    }
+
+    /**
+     * @param connector the connector
+     * @param upstream the connection to the Bedrock client, batching has to be started separately
+     */
+    public GeyserSession(GeyserConnector connector, UpstreamSession upstream) {
         this.connector = connector;
-        this.upstream = new UpstreamSession(bedrockServerSession);
+        this.upstream = upstream;
 
         this.chunkCache = new ChunkCache(this);
         this.entityCache = new EntityCache(this);
@@ -123,7 +171,7 @@ public class GeyserSession implements Player {
         // This has to be sent first so the player actually joins
         startGame();
 
-        this.remoteServer = remoteServer;
+        useRemoteServer(remoteServer);
         if (!(connector.getConfig().getRemote().getAuthType().hashCode() == "online".hashCode())) {
             connector.getLogger().info("Attempting to login using offline mode... authentication is disabled.");
             authenticate(authenticationData.getName());
@@ -141,53 +189,164 @@ public class GeyserSession implements Player {
         }
 
         loggedIn = true;
-        // new thread so clients don't timeout
-        new Thread(() -> {
-            try {
-                MinecraftProtocol protocol;
-                if (password != null && !password.isEmpty()) {
-                    protocol = new MinecraftProtocol(username, password);
-                } else {
-                    protocol = new MinecraftProtocol(username);
-                }
-
-                downstream = new Client(remoteServer.getAddress(), remoteServer.getPort(), protocol, new TcpSessionFactory());
-                downstream.getSession().addListener(new SessionAdapter() {
+        // Wait for our turn, so a crowd of players doesn't connect to the Java server at once
+        connector.getAdmissionController().admit(this, ticket -> {
+            loginTicket = ticket;
+            // new thread so clients don't timeout
+            new Thread(() -> {
+                try {
+                    MinecraftProtocol protocol;
+                    boolean filter = connector.getConfig().isSkipUntranslatedPackets();
+                    List<String> alwaysDecoded = connector.getConfig().getAlwaysDecodePackets();
+                    if (password != null && !password.isEmpty()) {
+                        protocol = filter ? new FilteredMinecraftProtocol(username, password, alwaysDecoded) : new MinecraftProtocol(username, password);
+                    } else {
+                        protocol = filter ? new FilteredMinecraftProtocol(username, alwaysDecoded) : new MinecraftProtocol(username);
+                    }
 
-                    @Override
-                    public void connected(ConnectedEvent event) {
-                        loggingIn = false;
-                        loggedIn = true;
-                        connector.getLogger().info(authenticationData.getName() + " (logged in as: " + protocol.getProfile().getName() + ")" + " has connected to remote java server on address " + remoteServer.getAddress());
-                        playerEntity.setUuid(protocol.getProfile().getId());
-                        playerEntity.setUsername(protocol.getProfile().getName());
+                    int globalMaxPlayers = connector.getConfig().getAdmission().getGlobalMaxPlayers();
+                    if (globalMaxPlayers > 0 && connector.getSharedPlayers().getPlayerCount() >= globalMaxPlayers) {
+                        abortLogin();
+                        upstream.disconnect("The server is full");
+                        return;
                     }
 
-                    @Override
-                    public void disconnected(DisconnectedEvent event) {
-                        loggingIn = false;
-                        loggedIn = false;
-                        connector.getLogger().info(authenticationData.getName() + " has disconnected from remote java server on address " + remoteServer.getAddress() + " because of " + event.getReason());
-                        upstream.disconnect(event.getReason());
+                    // A failed attempt before this one gave back its reservation
+                    if (remoteServer instanceof BackendBalancer.Backend && backend.get() == null) {
+                        BackendBalancer.Backend selected = connector.getBackendBalancer().select(Collections.emptyList());
+                        if (selected != null) {
+                            useRemoteServer(selected);
+                        }
                     }
 
-                    @Override
-                    public void packetReceived(PacketReceivedEvent event) {
-                        if (!closed) {
-                            Registry.JAVA.translate(event.getPacket().getClass(), event.getPacket(), GeyserSession.this);
+                    // Servers picked by the balancer can be swapped for another one if connecting fails
+                    List<RemoteServer> tried = new ArrayList<>();
+                    RemoteServer target = remoteServer;
+                    while (target != null && !closed) {
+                        tried.add(target);
+                        if (connectDownstream(target, protocol)) {
+                            if (closed) {
+                                // The player left while connecting
+                                downstream.getSession().disconnect("Bedrock client disconnected");
+                                abortLogin();
+                                return;
+                            }
+
+                            connector.addPlayer(this);
+                            return;
+                        }
+
+                        target = target instanceof BackendBalancer.Backend ? connector.getBackendBalancer().select(tried) : null;
+                        if (target != null) {
+                            connector.getLogger().info("Could not connect " + authenticationData.getName() + " to " + remoteServer.getAddress()
+                                    + ":" + remoteServer.getPort() + ", trying " + target.getAddress() + ":" + target.getPort());
+                            useRemoteServer(target);
                         }
                     }
-                });
 
-                downstream.getSession().connect();
-                connector.addPlayer(this);
-            } catch (RequestException ex) {
-                ex.printStackTrace();
+                    abortLogin();
+                    if (!closed) {
+                        upstream.disconnect("Could not connect to the remote server");
+                    }
+                } catch (RequestException ex) {
+                    // The player can try to log in again
+                    abortLogin();
+                    ex.printStackTrace();
+                }
+            }).start();
+        });
+    }
+
+    /**
+     * @return if the connection to the server was made
+     */
+    private boolean connectDownstream(RemoteServer target, MinecraftProtocol protocol) {
+        AtomicBoolean connected = new AtomicBoolean();
+        downstream = new Client(target.getAddress(), target.getPort(), protocol, new TcpSessionFactory());
+        downstream.getSession().addListener(new SessionAdapter() {
+
+            @Override
+            public void connected(ConnectedEvent event) {
+                connected.set(true);
+                releaseLoginTicket();
+                loggingIn = false;
+                loggedIn = true;
+                connector.getLogger().info(authenticationData.getName() + " (logged in as: " + protocol.getProfile().getName() + ")" + " has connected to remote java server on address " + target.getAddress());
+                playerEntity.setUuid(protocol.getProfile().getId());
+                playerEntity.setUsername(protocol.getProfile().getName());
+            }
+
+            @Override
+            public void disconnected(DisconnectedEvent event) {
+                // Failing to connect is handled by the login, which may try another server
+                if (!connected.get())
+                    return;
+
+                releaseLoginTicket();
+                releaseBackend();
+                loggingIn = false;
+                loggedIn = false;
+                connector.getLogger().info(authenticationData.getName() + " has disconnected from remote java server on address " + target.getAddress() + " because of " + event.getReason());
+                upstream.disconnect(event.getReason());
+            }
+
+            @Override
+            public void packetReceived(PacketReceivedEvent event) {
+                if (!closed && !(event.getPacket() instanceof SkippedPacket)) {
+                    if (capture != null) {
+                        capture.writeJava(event.getPacket());
+                    }
+                    Registry.JAVA.translate(event.getPacket().getClass(), event.getPacket(), GeyserSession.this);
+                }
             }
-        }).start();
+        });
+
+        downstream.getSession().connect();
+        if (connected.get() || downstream.getSession().isConnected())
+            return true;
+
+        releaseBackend();
+        return false;
+    }
+
+    /**
+     * Gives back what a login that didn't get the player on a server held
+     */
+    private void abortLogin() {
+        releaseLoginTicket();
+        releaseBackend();
+        loggingIn = false;
+        loggedIn = false;
+    }
+
+    private void useRemoteServer(RemoteServer remoteServer) {
+        releaseBackend();
+        this.remoteServer = remoteServer;
+        if (remoteServer instanceof BackendBalancer.Backend) {
+            backend.set((BackendBalancer.Backend) remoteServer);
+        }
+    }
+
+    /**
+     * Releases the connection reserved on the server picked by the balancer
+     */
+    private void releaseBackend() {
+        BackendBalancer.Backend reserved = backend.getAndSet(null);
+        if (reserved != null) {
+            connector.getBackendBalancer().release(reserved);
+        }
+    }
+
+    private void releaseLoginTicket() {
+        AdmissionController.Ticket ticket = loginTicket;
+        if (ticket != null) {
+            ticket.release();
+        }
     }
 
     public void disconnect(String reason) {
+        releaseLoginTicket();
+        releaseBackend();
         if (!closed) {
             loggedIn = false;
             if (downstream != null && downstream.getSession() != null) {
@@ -196,6 +355,9 @@ public class GeyserSession implements Player {
             if (upstream != null && !upstream.isClosed()) {
                 upstream.disconnect(reason);
             }
+            if (capture != null) {
+                capture.close();
+            }
         }
 
         closed = true;
@@ -205,6 +367,10 @@ public class GeyserSession implements Player {
         return closed;
     }
 
+    public ScheduledExecutorService getExecutor() {
+        return executor != null ? executor : connector.getGeneralThreadPool();
+    }
+
     public void close() {
         disconnect("Server closed.");
     }
@@ -252,53 +418,7 @@ public class GeyserSession implements Player {
     }
 
     private void startGame() {
-        StartGamePacket startGamePacket = new StartGamePacket();
-        startGamePacket.setUniqueEntityId(playerEntity.getGeyserId());
-        startGamePacket.setRuntimeEntityId(playerEntity.getGeyserId());
-        startGamePacket.setPlayerGamemode(0);
-        startGamePacket.setPlayerPosition(Vector3f.from(0, 69, 0));
-        startGamePacket.setRotation(Vector2f.from(1, 1));
-
-        startGamePacket.setSeed(0);
-        startGamePacket.setDimensionId(playerEntity.getDimension());
-        startGamePacket.setGeneratorId(1);
-        startGamePacket.setLevelGamemode(0);
-        startGamePacket.setDifficulty(1);
-        startGamePacket.setDefaultSpawn(Vector3i.ZERO);
-        startGamePacket.setAcheivementsDisabled(true);
-        startGamePacket.setTime(0);
-        startGamePacket.setEduLevel(false);
-        startGamePacket.setEduFeaturesEnabled(false);
-        startGamePacket.setRainLevel(0);
-        startGamePacket.setLightningLevel(0);
-        startGamePacket.setMultiplayerGame(true);
-        startGamePacket.setBroadcastingToLan(true);
-        startGamePacket.getGamerules().add(new GameRule<>("showcoordinates", true));
-        startGamePacket.setPlatformBroadcastMode(GamePublishSetting.PUBLIC);
-        startGamePacket.setXblBroadcastMode(GamePublishSetting.PUBLIC);
-        startGamePacket.setCommandsEnabled(true);
-        startGamePacket.setTexturePacksRequired(false);
-        startGamePacket.setBonusChestEnabled(false);
-        startGamePacket.setStartingWithMap(false);
-        startGamePacket.setTrustingPlayers(true);
-        startGamePacket.setDefaultPlayerPermission(1);
-        startGamePacket.setServerChunkTickRange(4);
-        startGamePacket.setBehaviorPackLocked(false);
-        startGamePacket.setResourcePackLocked(false);
-        startGamePacket.setFromLockedWorldTemplate(false);
-        startGamePacket.setUsingMsaGamertagsOnly(false);
-        startGamePacket.setFromWorldTemplate(false);
-        startGamePacket.setWorldTemplateOptionLocked(false);
-
-        startGamePacket.setLevelId("world");
-        startGamePacket.setWorldName("world");
-        startGamePacket.setPremiumWorldTemplateId("00000000-0000-0000-0000-000000000000");
-        startGamePacket.setCurrentTick(0);
-        startGamePacket.setEnchantmentSeed(0);
-        startGamePacket.setMultiplayerCorrelationId("");
-        startGamePacket.setCachedPalette(Toolbox.CACHED_PALLETE.retainedDuplicate());
-        startGamePacket.setItemEntries(Toolbox.ITEMS);
-        upstream.sendPacket(startGamePacket);
+        upstream.sendPacket(StartGameTemplate.build(playerEntity.getGeyserId(), 0, playerEntity.getDimension(), Vector3f.from(0, 69, 0), Vector2f.from(1, 1)));
 
         PlayStatusPacket playStatusPacket = new PlayStatusPacket();
         playStatusPacket.setStatus(PlayStatusPacket.Status.PLAYER_SPAWN);
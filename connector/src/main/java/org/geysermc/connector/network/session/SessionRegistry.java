@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session;
+
+import org.geysermc.api.session.AuthData;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the sessions of every logged in player.
+ *
+ * Lookups and iteration don't lock and are safe while players join and leave, only registering
+ * and unregistering a session is serialized so every index always points to the same sessions.
+ */
+public class SessionRegistry {
+
+    private final Set<GeyserSession> sessions = ConcurrentHashMap.newKeySet();
+    private final Collection<GeyserSession> sessionsView = Collections.unmodifiableSet(sessions);
+
+    private final Map<UUID, GeyserSession> byUuid = new ConcurrentHashMap<>();
+    private final Map<String, GeyserSession> byName = new ConcurrentHashMap<>();
+    private final Map<InetSocketAddress, GeyserSession> byAddress = new ConcurrentHashMap<>();
+    private final Map<String, GeyserSession> byXuid = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a session, replacing and disconnecting any session registered with the same name,
+     * UUID, address or XUID
+     *
+     * @param session the session to register
+     */
+    public void register(GeyserSession session) {
+        List<GeyserSession> replaced = new ArrayList<>();
+        synchronized (this) {
+            AuthData authData = session.getAuthenticationData();
+            replace(byUuid.put(authData.getUUID(), session), session, replaced);
+            replace(byName.put(authData.getName().toLowerCase(Locale.ROOT), session), session, replaced);
+            replace(byAddress.put(session.getSocketAddress(), session), session, replaced);
+            if (authData.getXboxUUID() != null) {
+                replace(byXuid.put(authData.getXboxUUID(), session), session, replaced);
+            }
+            sessions.add(session);
+        }
+
+        // Disconnecting sends packets, which shouldn't hold up other registrations
+        for (GeyserSession previous : replaced) {
+            previous.disconnect("You logged in from another location");
+        }
+    }
+
+    /**
+     * @param session the session to unregister
+     * @return if the session was registered
+     */
+    public synchronized boolean unregister(GeyserSession session) {
+        if (!sessions.remove(session))
+            return false;
+
+        AuthData authData = session.getAuthenticationData();
+        byUuid.remove(authData.getUUID(), session);
+        byName.remove(authData.getName().toLowerCase(Locale.ROOT), session);
+        byAddress.remove(session.getSocketAddress(), session);
+        if (authData.getXboxUUID() != null) {
+            byXuid.remove(authData.getXboxUUID(), session);
+        }
+        return true;
+    }
+
+    /**
+     * A session that is replaced in one index must not stay reachable through the others
+     */
+    private void replace(GeyserSession previous, GeyserSession session, List<GeyserSession> replaced) {
+        if (previous != null && previous != session && unregister(previous)) {
+            replaced.add(previous);
+        }
+    }
+
+    public GeyserSession getByUuid(UUID uuid) {
+        return byUuid.get(uuid);
+    }
+
+    /**
+     * @param name the name of the player, ignoring case
+     * @return the session of the player, or null if they aren't online
+     */
+    public GeyserSession getByName(String name) {
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public GeyserSession getByAddress(InetSocketAddress address) {
+        return byAddress.get(address);
+    }
+
+    public GeyserSession getByXuid(String xuid) {
+        return byXuid.get(xuid);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return a view of every registered session, which can be iterated while sessions are added and removed
+     */
+    public Collection<GeyserSession> getSessions() {
+        return sessionsView;
+    }
+
+    /**
+     * @return a copy of every registered session
+     */
+    public List<GeyserSession> snapshot() {
+        return new ArrayList<>(sessions);
+    }
+}
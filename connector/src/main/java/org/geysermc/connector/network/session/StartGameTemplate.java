@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+package org.geysermc.connector.network.session;
+
+import com.nukkitx.math.vector.Vector2f;
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.math.vector.Vector3i;
+import com.nukkitx.network.VarInts;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.data.GamePublishSetting;
+import com.nukkitx.protocol.bedrock.data.GameRule;
+import com.nukkitx.protocol.bedrock.packet.StartGamePacket;
+import com.nukkitx.protocol.bedrock.packet.UnknownPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.console.GeyserLogger;
+import org.geysermc.connector.utils.Toolbox;
+
+import java.util.Collections;
+
+/**
+ * Builds the start game packet sent to every player.
+ *
+ * The block palette and item table make up most of the packet and never change, so they're
+ * encoded once. Every login only encodes the per player fields and sends them followed by
+ * the shared encoded tail, without copying it.
+ *
+ * The template is checked once against a normally encoded packet, if the codec encodes it
+ * any differently every player gets the normal packet instead.
+ */
+public class StartGameTemplate {
+    private static final int PACKET_ID_MASK = 0x3ff;
+
+    /**
+     * The encoded end of a packet without the palette and items, which is replaced by {@link #TAIL}
+     */
+    private static final byte[] EMPTY_TAIL;
+    private static final ByteBuf TAIL;
+
+    static {
+        byte[] emptyTail = null;
+        ByteBuf tail = null;
+
+        ByteBuf empty = null;
+        ByteBuf full = null;
+        try {
+            empty = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(create(0, 0, 0, Vector3f.ZERO, Vector2f.ZERO));
+            full = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(withPaletteAndItems(create(0, 0, 0, Vector3f.ZERO, Vector2f.ZERO)));
+
+            // Both packets only differ after the fields that are shared, which is where the palette and items start
+            int prefix = 0;
+            int max = Math.min(empty.readableBytes(), full.readableBytes());
+            while (prefix < max && empty.getByte(empty.readerIndex() + prefix) == full.getByte(full.readerIndex() + prefix)) {
+                prefix++;
+            }
+
+            emptyTail = ByteBufUtil.getBytes(empty, empty.readerIndex() + prefix, empty.readableBytes() - prefix);
+            tail = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(full.slice(full.readerIndex() + prefix, full.readableBytes() - prefix)));
+
+            if (!matchesEncoding(emptyTail, tail)) {
+                GeyserLogger.DEFAULT.warning("The pre-encoded start game packet doesn't match the codec, it will be encoded for every player");
+                emptyTail = null;
+                tail = null;
+            }
+        } catch (Exception ex) {
+            GeyserLogger.DEFAULT.warning("Could not pre-encode the start game packet, it will be encoded for every player: " + ex);
+            emptyTail = null;
+            tail = null;
+        } finally {
+            if (empty != null)
+                empty.release();
+            if (full != null)
+                full.release();
+        }
+
+        EMPTY_TAIL = emptyTail;
+        TAIL = tail;
+    }
+
+    /**
+     * Creates the start game packet for a player
+     *
+     * @param entityId the runtime and unique entity id of the player
+     * @param gamemode the gamemode of the player
+     * @param dimension the dimension the player is in
+     * @param position the position of the player
+     * @param rotation the rotation of the player
+     * @return the packet to send to the player
+     */
+    public static BedrockPacket build(long entityId, int gamemode, int dimension, Vector3f position, Vector2f rotation) {
+        StartGamePacket packet = create(entityId, gamemode, dimension, position, rotation);
+        if (TAIL != null) {
+            try {
+                BedrockPacket templated = applyTemplate(packet, EMPTY_TAIL, TAIL);
+                if (templated != null)
+                    return templated;
+            } catch (Exception ex) {
+                GeyserLogger.DEFAULT.debug(() -> "Could not use the start game template: " + ex);
+            }
+        }
+
+        packet.setCachedPalette(Toolbox.CACHED_PALLETE.retainedDuplicate());
+        packet.setItemEntries(Toolbox.ITEMS);
+        return packet;
+    }
+
+    /**
+     * @return if the pre-encoded tail is used, false if it didn't match the codec
+     */
+    static boolean isEnabled() {
+        return TAIL != null;
+    }
+
+    /**
+     * Encodes a player whose fields all differ from the ones the tail was taken from, once
+     * through the template and once as a normal packet
+     *
+     * @return if both encodings are the same
+     */
+    private static boolean matchesEncoding(byte[] emptyTail, ByteBuf tail) {
+        Vector3f position = Vector3f.from(12.5f, 70f, -3.25f);
+        Vector2f rotation = Vector2f.from(90f, 45f);
+        BedrockPacket templated = applyTemplate(create(123456789, 1, 1, position, rotation), emptyTail, tail);
+        if (templated == null)
+            return false;
+
+        ByteBuf expected = null;
+        ByteBuf actual = null;
+        try {
+            expected = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(withPaletteAndItems(create(123456789, 1, 1, position, rotation)));
+            actual = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(templated);
+            return ByteBufUtil.equals(expected, actual);
+        } finally {
+            if (expected != null)
+                expected.release();
+            if (actual != null)
+                actual.release();
+        }
+    }
+
+    /**
+     * @return the encoded packet with the shared tail, or null if it didn't end like the template
+     */
+    private static BedrockPacket applyTemplate(StartGamePacket packet, byte[] emptyTail, ByteBuf tail) {
+        ByteBuf encoded = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(packet);
+        try {
+            int header = (int) VarInts.readUnsignedInt(encoded);
+            int prefix = encoded.readableBytes() - emptyTail.length;
+            if (prefix < 0 || !ByteBufUtil.equals(encoded, encoded.readerIndex() + prefix, Unpooled.wrappedBuffer(emptyTail), 0, emptyTail.length))
+                return null;
+
+            ByteBuf fields = Unpooled.copiedBuffer(encoded.slice(encoded.readerIndex(), prefix));
+            UnknownPacket templated = new UnknownPacket();
+            templated.setPacketId(header & PACKET_ID_MASK);
+            templated.setPayload(Unpooled.wrappedBuffer(fields, tail.duplicate()));
+            return templated;
+        } finally {
+            encoded.release();
+        }
+    }
+
+    /**
+     * Adds the palette and items to a packet from {@link #create}, sharing the cached palette without retaining it
+     */
+    static StartGamePacket withPaletteAndItems(StartGamePacket packet) {
+        packet.setCachedPalette(Toolbox.CACHED_PALLETE.duplicate());
+        packet.setItemEntries(Toolbox.ITEMS);
+        return packet;
+    }
+
+    /**
+     * @return the start game packet for a player without the palette and items
+     */
+    static StartGamePacket create(long entityId, int gamemode, int dimension, Vector3f position, Vector2f rotation) {
+        StartGamePacket startGamePacket = new StartGamePacket();
+        startGamePacket.setUniqueEntityId(entityId);
+        startGamePacket.setRuntimeEntityId(entityId);
+        startGamePacket.setPlayerGamemode(gamemode);
+        startGamePacket.setPlayerPosition(position);
+        startGamePacket.setRotation(rotation);
+
+        startGamePacket.setSeed(0);
+        startGamePacket.setDimensionId(dimension);
+        startGamePacket.setGeneratorId(1);
+        startGamePacket.setLevelGamemode(0);
+        startGamePacket.setDifficulty(1);
+        startGamePacket.setDefaultSpawn(Vector3i.ZERO);
+        startGamePacket.setAcheivementsDisabled(true);
+        startGamePacket.setTime(0);
+        startGamePacket.setEduLevel(false);
+        startGamePacket.setEduFeaturesEnabled(false);
+        startGamePacket.setRainLevel(0);
+        startGamePacket.setLightningLevel(0);
+        startGamePacket.setMultiplayerGame(true);
+        startGamePacket.setBroadcastingToLan(true);
+        startGamePacket.getGamerules().add(new GameRule<>("showcoordinates", true));
+        startGamePacket.setPlatformBroadcastMode(GamePublishSetting.PUBLIC);
+        startGamePacket.setXblBroadcastMode(GamePublishSetting.PUBLIC);
+        startGamePacket.setCommandsEnabled(true);
+        startGamePacket.setTexturePacksRequired(false);
+        startGamePacket.setBonusChestEnabled(false);
+        startGamePacket.setStartingWithMap(false);
+        startGamePacket.setTrustingPlayers(true);
+        startGamePacket.setDefaultPlayerPermission(1);
+        startGamePacket.setServerChunkTickRange(4);
+        startGamePacket.setBehaviorPackLocked(false);
+        startGamePacket.setResourcePackLocked(false);
+        startGamePacket.setFromLockedWorldTemplate(false);
+        startGamePacket.setUsingMsaGamertagsOnly(false);
+        startGamePacket.setFromWorldTemplate(false);
+        startGamePacket.setWorldTemplateOptionLocked(false);
+
+        startGamePacket.setLevelId("world");
+        startGamePacket.setWorldName("world");
+        startGamePacket.setPremiumWorldTemplateId("00000000-0000-0000-0000-000000000000");
+        startGamePacket.setCurrentTick(0);
+        startGamePacket.setEnchantmentSeed(0);
+        startGamePacket.setMultiplayerCorrelationId("");
+        startGamePacket.setCachedPalette(Unpooled.EMPTY_BUFFER);
+        startGamePacket.setItemEntries(Collections.emptyList());
+        return startGamePacket;
+    }
+}
@@ -2,37 +2,290 @@ package org.geysermc.connector.network.session;
 
 import com.nukkitx.protocol.bedrock.BedrockPacket;
 import com.nukkitx.protocol.bedrock.BedrockServerSession;
+import com.nukkitx.protocol.bedrock.packet.LevelChunkPacket;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.geysermc.connector.configuration.BatchingInfo;
+import org.geysermc.connector.configuration.CompressionInfo;
+import org.geysermc.connector.network.capture.PacketCaptureWriter;
+import org.geysermc.connector.utils.CompressionUtils;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-@RequiredArgsConstructor
 public class UpstreamSession {
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    private static final int SMALL_PACKET_ESTIMATE = 32;
+
     @Getter private final BedrockServerSession session;
     @Getter @Setter
     private boolean initialized = false;
 
+    private final BatchingInfo batching;
+    private final CompressionInfo compression;
+    private final Queue<BedrockPacket> queuedPackets = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final Object flushLock = new Object();
+    private ScheduledFuture<?> flushTask;
+
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong packetsSent = new AtomicLong();
+    @Getter
+    private volatile int lastBatchSize;
+
+    private final AtomicLong sendCpuTime = new AtomicLong();
+    private final AtomicLong sampledRawBytes = new AtomicLong();
+    private final AtomicLong sampledCompressedBytes = new AtomicLong();
+    private final AtomicLong sampledCompressionTime = new AtomicLong();
+    private volatile int compressionLevel = -1;
+    private Executor sampleExecutor;
+
+    @Setter
+    private PacketCaptureWriter capture;
+
+    public UpstreamSession(BedrockServerSession session, BatchingInfo batching, CompressionInfo compression) {
+        this.session = session;
+        this.batching = batching;
+        this.compression = compression;
+    }
+
+    /**
+     * Starts flushing the outgoing queue on the given executor
+     *
+     * @param executor the executor to schedule the flush task on
+     */
+    public void startBatching(ScheduledExecutorService executor) {
+        this.sampleExecutor = executor;
+        if (!batching.isEnabled() || flushTask != null)
+            return;
+
+        int interval = Math.max(1, batching.getFlushInterval());
+        flushTask = executor.scheduleAtFixedRate(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
     public void sendPacket(@NonNull BedrockPacket packet) {
         if (isClosed())
             return;
-        
-        session.sendPacket(packet);
+
+        if (capture != null) {
+            capture.writeSentBedrock(packet);
+        }
+
+        if (flushTask == null) {
+            session.sendPacket(packet);
+            return;
+        }
+
+        queuedPackets.add(packet);
+        if (queuedCount.incrementAndGet() >= batching.getMaxBatchSize()) {
+            flush();
+        }
     }
 
     public void sendPacketImmediately(@NonNull BedrockPacket packet) {
         if (isClosed())
             return;
 
-        session.sendPacketImmediately(packet);
+        if (capture != null) {
+            capture.writeSentBedrock(packet);
+        }
+
+        // Anything already queued was sent before this packet, so it has to leave first
+        synchronized (flushLock) {
+            flush();
+
+            int estimatedSize = estimateSize(packet);
+            long start = applyCompressionLevel(estimatedSize);
+            session.sendPacketImmediately(packet);
+            sendCpuTime.addAndGet(getCpuTime() - start);
+
+            recordBatch(1);
+            sampleCompression(packet);
+        }
+    }
+
+    /**
+     * Sends every queued packet to the client as a single batch
+     */
+    public void flush() {
+        if (isClosed()) {
+            stopBatching();
+            return;
+        }
+
+        if (queuedCount.get() == 0)
+            return;
+
+        synchronized (flushLock) {
+            List<BedrockPacket> batch = new ArrayList<>(queuedCount.get());
+            int estimatedSize = 0;
+            BedrockPacket packet;
+            while ((packet = queuedPackets.poll()) != null) {
+                batch.add(packet);
+                estimatedSize += estimateSize(packet);
+            }
+
+            if (batch.isEmpty())
+                return;
+
+            queuedCount.addAndGet(-batch.size());
+
+            long start = applyCompressionLevel(estimatedSize);
+            session.sendWrapped(batch, true);
+            sendCpuTime.addAndGet(getCpuTime() - start);
+
+            recordBatch(batch.size());
+            for (BedrockPacket sent : batch) {
+                sampleCompression(sent);
+            }
+        }
+    }
+
+    /**
+     * Picks the deflate level for a batch of the given size and hands it to the protocol
+     * library, which compresses the batch while sending it.
+     *
+     * The level is a setting of the whole library session, which its own queue is compressed
+     * with too. It's only changed while batching, when every packet leaves through
+     * {@link #flush()} or {@link #sendPacketImmediately(BedrockPacket)} under the flush lock,
+     * so the level set here is the one the batch is compressed with.
+     *
+     * @param estimatedSize the estimated uncompressed size of the batch
+     * @return the current thread CPU time, to be used as the start of the measurement
+     */
+    private long applyCompressionLevel(int estimatedSize) {
+        if (compression.isAdaptive() && flushTask != null) {
+            int level = getCompressionLevel(estimatedSize);
+            if (level != compressionLevel) {
+                session.setCompressionLevel(level);
+                compressionLevel = level;
+            }
+        }
+        return getCpuTime();
+    }
+
+    private int getCompressionLevel(int estimatedSize) {
+        if (estimatedSize <= compression.getSmallBatchSize())
+            return compression.getSmallLevel();
+
+        if (estimatedSize >= compression.getLargeBatchSize())
+            return compression.getLargeLevel();
+
+        return compression.getDefaultLevel();
+    }
+
+    /**
+     * Chunk payloads are the only packets that we already hold serialized, so when sampling is
+     * enabled the ones in every nth batch are compressed again to measure the ratio and the time
+     * compressing alone takes. This is extra work, so it's off by default and never done on the
+     * thread that sends.
+     */
+    private void sampleCompression(BedrockPacket packet) {
+        if (!(packet instanceof LevelChunkPacket) || compression.getRatioSampleRate() <= 0 || sampleExecutor == null)
+            return;
+
+        if (batchesSent.get() % compression.getRatioSampleRate() != 0)
+            return;
+
+        byte[] data = ((LevelChunkPacket) packet).getData();
+        int level = compressionLevel == -1 ? compression.getDefaultLevel() : compressionLevel;
+        sampleExecutor.execute(() -> {
+            long start = getCpuTime();
+            int compressedSize = CompressionUtils.getCompressedSize(data, level);
+            sampledCompressionTime.addAndGet(getCpuTime() - start);
+            sampledRawBytes.addAndGet(data.length);
+            sampledCompressedBytes.addAndGet(compressedSize);
+        });
+    }
+
+    private static int estimateSize(BedrockPacket packet) {
+        if (packet instanceof LevelChunkPacket) {
+            return ((LevelChunkPacket) packet).getData().length;
+        }
+        return SMALL_PACKET_ESTIMATE;
+    }
+
+    private static long getCpuTime() {
+        return THREAD_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private void recordBatch(int size) {
+        batchesSent.incrementAndGet();
+        packetsSent.addAndGet(size);
+        lastBatchSize = size;
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.get();
+    }
+
+    public long getPacketsSent() {
+        return packetsSent.get();
+    }
+
+    public double getAveragePacketsPerBatch() {
+        long batches = batchesSent.get();
+        return batches == 0 ? 0 : (double) packetsSent.get() / batches;
+    }
+
+    /**
+     * The protocol library encodes, compresses and encrypts a batch in one call, so this is the
+     * time of all three. See {@link #getSampledCompressionTime()} for compression alone.
+     *
+     * @return the CPU time in nanoseconds spent handing batches to the protocol library
+     */
+    public long getSendCpuTime() {
+        return sendCpuTime.get();
+    }
+
+    /**
+     * @return the CPU time in nanoseconds spent compressing the sampled chunks, 0 if sampling is disabled
+     */
+    public long getSampledCompressionTime() {
+        return sampledCompressionTime.get();
+    }
+
+    /**
+     * @return the amount of uncompressed bytes that were sampled
+     */
+    public long getSampledBytes() {
+        return sampledRawBytes.get();
+    }
+
+    /**
+     * @return the sampled compressed size divided by the uncompressed size, or 0 if nothing was sampled yet
+     */
+    public double getCompressionRatio() {
+        long raw = sampledRawBytes.get();
+        return raw == 0 ? 0 : (double) sampledCompressedBytes.get() / raw;
     }
 
     public void disconnect(String reason) {
+        flush();
+        stopBatching();
         session.disconnect(reason);
     }
 
+    private void stopBatching() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        queuedPackets.clear();
+        queuedCount.set(0);
+    }
+
     public boolean isClosed() {
         return session.isClosed();
     }
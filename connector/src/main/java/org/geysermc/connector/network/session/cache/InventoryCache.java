@@ -25,19 +25,30 @@
 
 package org.geysermc.connector.network.session.cache;
 
+import com.github.steveice10.mc.protocol.packet.ingame.server.window.ServerSetSlotPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.window.ServerWindowItemsPacket;
 import com.github.steveice10.packetlib.packet.Packet;
+import com.nukkitx.protocol.bedrock.data.ItemData;
 import lombok.Getter;
 import lombok.Setter;
 import org.geysermc.connector.inventory.Inventory;
 import org.geysermc.connector.network.session.GeyserSession;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 
 public class InventoryCache {
 
+    /**
+     * The most packets kept for a window that isn't open yet
+     */
+    private static final int MAX_PENDING_PACKETS = 128;
+
     private GeyserSession session;
 
     @Getter
@@ -47,8 +58,15 @@ public class InventoryCache {
     @Getter
     private Map<Integer, Inventory> inventories = new HashMap<Integer, Inventory>();
 
-    @Getter
-    private Map<Integer, List<Packet>> cachedPackets = new HashMap<Integer, List<Packet>>();
+    /**
+     * Packets for windows that aren't open yet, which are replayed once they are
+     */
+    private Map<Integer, Deque<Packet>> pendingPackets = new HashMap<Integer, Deque<Packet>>();
+
+    /**
+     * The items the Bedrock client was last sent for every container
+     */
+    private Map<Integer, ItemData[]> sentItems = new HashMap<Integer, ItemData[]>();
 
     public InventoryCache(GeyserSession session) {
         this.session = session;
@@ -64,11 +82,83 @@ public class InventoryCache {
 
     public void uncacheInventory(int id) {
         inventories.remove(id);
+        pendingPackets.remove(id);
+        sentItems.remove(id);
     }
 
+    /**
+     * Keeps a packet until the window is open. Packets that are overridden by a later one are
+     * dropped, so only the full contents and the slots changed after them are kept.
+     *
+     * @param id the id of the window
+     * @param packet the packet
+     */
     public void cachePacket(int id, Packet packet) {
-        List<Packet> packets = cachedPackets.getOrDefault(id, new ArrayList<Packet>());
+        Deque<Packet> packets = pendingPackets.computeIfAbsent(id, key -> new ArrayDeque<>());
+        if (packet instanceof ServerWindowItemsPacket) {
+            packets.clear();
+        } else if (packet instanceof ServerSetSlotPacket) {
+            int slot = ((ServerSetSlotPacket) packet).getSlot();
+            packets.removeIf(pending -> pending instanceof ServerSetSlotPacket && ((ServerSetSlotPacket) pending).getSlot() == slot);
+        }
+
+        // Slot updates are dropped before the full contents, which are worth more
+        if (packets.size() >= MAX_PENDING_PACKETS) {
+            Iterator<Packet> iterator = packets.iterator();
+            while (iterator.hasNext()) {
+                if (!(iterator.next() instanceof ServerWindowItemsPacket)) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
         packets.add(packet);
-        cachedPackets.put(id, packets);
+    }
+
+    /**
+     * @param id the id of the window
+     * @return the packets kept for the window in the order they were received, which are no longer kept
+     */
+    public Collection<Packet> takePendingPackets(int id) {
+        Deque<Packet> packets = pendingPackets.remove(id);
+        return packets != null ? packets : Collections.emptyList();
+    }
+
+    /**
+     * Drops the packets kept for every other window. Only one window is open at a time, so the
+     * others are never opened anymore.
+     *
+     * @param id the id of the window being opened
+     */
+    public void dropPendingPackets(int id) {
+        pendingPackets.keySet().removeIf(pendingId -> pendingId != id);
+    }
+
+    /**
+     * @param containerId the Bedrock container id
+     * @return the items the client was last sent, or null if it has to be sent every item
+     */
+    public ItemData[] getSentItems(int containerId) {
+        return sentItems.get(containerId);
+    }
+
+    public void setSentItems(int containerId, ItemData[] items) {
+        sentItems.put(containerId, items);
+    }
+
+    /**
+     * Makes the next update of the container send every item, for when the client shows it empty again
+     *
+     * @param containerId the Bedrock container id
+     */
+    public void removeSentItems(int containerId) {
+        sentItems.remove(containerId);
+    }
+
+    /**
+     * Makes the next update of every container send every item, for when the client may have changed them itself
+     */
+    public void clearSentItems() {
+        sentItems.clear();
     }
 }
@@ -47,8 +47,10 @@ public class ScoreboardCache {
             Collection<Objective> objectives = scoreboard.getObjectives().values();
             scoreboard = new Scoreboard(session);
 
-            for (Objective objective : objectives) {
-                scoreboard.despawnObjective(objective);
+            synchronized (scoreboard) {
+                for (Objective objective : objectives) {
+                    scoreboard.despawnObjective(objective);
+                }
             }
         }
     }
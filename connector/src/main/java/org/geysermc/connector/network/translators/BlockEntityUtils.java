@@ -5,6 +5,7 @@ import com.nukkitx.nbt.tag.CompoundTag;
 import com.nukkitx.nbt.tag.IntTag;
 import com.nukkitx.nbt.tag.StringTag;
 import com.nukkitx.nbt.tag.Tag;
+import org.geysermc.connector.console.GeyserLogger;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -37,70 +38,85 @@ public class BlockEntityUtils {
 
     public static final String MINECRAFT = "minecraft:";
 
+    private static final Map<String, String> BEDROCK_IDS = new HashMap<>();
+
+    static {
+        BEDROCK_IDS.put("chest", CHEST);
+        BEDROCK_IDS.put("ender_chest", ENDER_CHEST);
+        BEDROCK_IDS.put("furnace", FURNACE);
+        BEDROCK_IDS.put("sign", SIGN);
+        BEDROCK_IDS.put("mob_spawner", MOB_SPAWNER);
+        BEDROCK_IDS.put("enchanting_table", ENCHANT_TABLE);
+        BEDROCK_IDS.put("skull", SKULL);
+        BEDROCK_IDS.put("flower_pot", FLOWER_POT);
+        BEDROCK_IDS.put("brewing_stand", BREWING_STAND);
+        BEDROCK_IDS.put("daylight_detector", DAYLIGHT_DETECTOR);
+        BEDROCK_IDS.put("note_block", MUSIC);
+        BEDROCK_IDS.put("cauldron", CAULDRON);
+        BEDROCK_IDS.put("beacon", BEACON);
+        BEDROCK_IDS.put("piston_head", PISTON_ARM);
+        BEDROCK_IDS.put("comparator", COMPARATOR);
+        BEDROCK_IDS.put("hopper", HOPPER);
+        BEDROCK_IDS.put("bed", BED);
+        BEDROCK_IDS.put("jukebox", JUKEBOX);
+        BEDROCK_IDS.put("shulker_box", SHULKER_BOX);
+        BEDROCK_IDS.put("banner", BANNER);
+    }
+
     public static String getBedrockID(String java) {
-        java = java.replace(MINECRAFT, "");
-
-        if(java.equalsIgnoreCase("chest"))
-            return CHEST;
-        if(java.equalsIgnoreCase("ender_chest"))
-            return ENDER_CHEST;
-        if(java.equalsIgnoreCase("furnace"))
-            return FURNACE;
+        java = java.replace(MINECRAFT, "").toLowerCase();
+
+        String id = BEDROCK_IDS.get(java);
         //Signs are special
-        if(java.contains("sign"))
+        if (id == null && java.contains("sign"))
             return SIGN;
-        if(java.equalsIgnoreCase("mob_spawner"))
-            return MOB_SPAWNER;
-        if(java.equalsIgnoreCase("enchanting_table"))
-            return ENCHANT_TABLE;
-        if(java.equalsIgnoreCase("skull"))
-            return SKULL;
-        if(java.equalsIgnoreCase("flower_pot"))
-            return FLOWER_POT;
-        if(java.equalsIgnoreCase("brewing_stand"))
-            return BREWING_STAND;
-        if(java.equalsIgnoreCase("daylight_detector"))
-            return DAYLIGHT_DETECTOR;
-        if(java.equalsIgnoreCase("note_block"))
-            return MUSIC;
-        if(java.equalsIgnoreCase("cauldron"))
-            return CAULDRON;
-        if(java.equalsIgnoreCase("beacon"))
-            return BEACON;
-        if(java.equalsIgnoreCase("piston_head"))
-            return PISTON_ARM;
-        if(java.equalsIgnoreCase("comparator"))
-            return COMPARATOR;
-        if(java.equalsIgnoreCase("hopper"))
-            return HOPPER;
-        if(java.equalsIgnoreCase("bed"))
-            return BED;
-        if(java.equalsIgnoreCase("jukebox"))
-            return JUKEBOX;
-        if(java.equalsIgnoreCase("shulker_box"))
-            return SHULKER_BOX;
-        if(java.equalsIgnoreCase("banner"))
-            return BANNER;
-
-        return null;
+
+        return id;
     }
 
+    /**
+     * @param tag the Java block entity
+     * @return the Bedrock block entity, or null if it doesn't exist on Bedrock
+     */
     public static CompoundTag getExtraTags(com.github.steveice10.opennbt.tag.builtin.CompoundTag tag) {
-        try {
-            return MAPPINGS.get(tag.get("id").getValue()).getExtraTags(tag);
-        } catch (Exception e) {
-            System.out.println(tag);
-            int x = ((Number) tag.getValue().get("x").getValue()).intValue();
-            int y = ((Number) tag.getValue().get("y").getValue()).intValue();
-            int z = ((Number) tag.getValue().get("z").getValue()).intValue();
-
-            String id = BlockEntityUtils.getBedrockID((String) tag.get("id").getValue());
+        String javaId = (String) tag.get("id").getValue();
+        ExtraDataMapper mapper = MAPPINGS.get(javaId);
+        if (mapper != null)
+            return mapper.getExtraTags(tag);
 
-            return CompoundTagBuilder.builder().intTag("x", x).intTag("y", y).intTag("z", z).stringTag("id" , id).build("");
+        String id = getBedrockID(javaId);
+        if (id == null) {
+            GeyserLogger.DEFAULT.debug(() -> "Block entity " + javaId + " does not exist on bedrock edition!");
+            return null;
         }
+
+        int x = ((Number) tag.getValue().get("x").getValue()).intValue();
+        int y = ((Number) tag.getValue().get("y").getValue()).intValue();
+        int z = ((Number) tag.getValue().get("z").getValue()).intValue();
+        return getDefaultTags(id, x, y, z);
+    }
+
+    /**
+     * Creates the block entity of a block the Java server didn't send one for
+     *
+     * @param javaId the id of the Java block entity
+     * @param x the x position of the block
+     * @param y the y position of the block
+     * @param z the z position of the block
+     * @return the Bedrock block entity, or null if it doesn't exist on Bedrock
+     */
+    public static CompoundTag getDefaultTags(String javaId, int x, int y, int z) {
+        ExtraDataMapper mapper = MAPPINGS.get(javaId);
+        if (mapper != null)
+            return mapper.getDefaultTags(x, y, z);
+
+        String id = getBedrockID(javaId);
+        return id == null ? null : CompoundTagBuilder.builder().intTag("x", x).intTag("y", y).intTag("z", z).stringTag("id", id).build("");
     }
 
     public static abstract class ExtraDataMapper {
         public abstract CompoundTag getExtraTags(com.github.steveice10.opennbt.tag.builtin.CompoundTag tag);
+
+        public abstract CompoundTag getDefaultTags(int x, int y, int z);
     }
 }
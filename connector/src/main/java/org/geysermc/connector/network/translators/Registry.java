@@ -32,19 +32,34 @@ import org.geysermc.connector.network.session.GeyserSession;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Registry<T> {
     private final Map<Class<? extends T>, PacketTranslator<? extends T>> MAP = new HashMap<>();
+    private final AtomicInteger version = new AtomicInteger();
 
     public static final Registry<Packet> JAVA = new Registry<>();
     public static final Registry<BedrockPacket> BEDROCK = new Registry<>();
 
     public static <T extends Packet> void registerJava(Class<T> clazz, PacketTranslator<T> translator) {
         JAVA.MAP.put(clazz, translator);
+        JAVA.version.incrementAndGet();
     }
 
     public static <T extends BedrockPacket> void registerBedrock(Class<T> clazz, PacketTranslator<T> translator) {
         BEDROCK.MAP.put(clazz, translator);
+        BEDROCK.version.incrementAndGet();
+    }
+
+    public boolean isRegistered(Class<?> clazz) {
+        return MAP.containsKey(clazz);
+    }
+
+    /**
+     * @return a number that changes every time a translator is registered
+     */
+    public int getVersion() {
+        return version.get();
     }
 
     public <P extends T> boolean translate(Class<? extends P> clazz, P packet, GeyserSession session) {
@@ -39,12 +39,21 @@ import com.nukkitx.protocol.bedrock.packet.InventoryTransactionPacket;
 import org.geysermc.connector.entity.Entity;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.PacketTranslator;
+import org.geysermc.connector.utils.InventoryUtils;
 
 public class BedrockInventoryTransactionTranslator extends PacketTranslator<InventoryTransactionPacket> {
 
     @Override
     public void translate(InventoryTransactionPacket packet, GeyserSession session) {
         switch (packet.getTransactionType()) {
+            case NORMAL:
+                // The client moved items itself, so what it was last sent can't be trusted anymore
+                session.getInventoryCache().clearSentItems();
+                break;
+            case INVENTORY_MISMATCH:
+                session.getInventoryCache().clearSentItems();
+                InventoryUtils.refreshPlayerInventory(session, session.getInventoryCache().getPlayerInventory());
+                break;
             case ITEM_USE:
                 if (packet.getActionType() == 1) {
                     ClientPlayerUseItemPacket useItemPacket = new ClientPlayerUseItemPacket(Hand.MAIN_HAND);
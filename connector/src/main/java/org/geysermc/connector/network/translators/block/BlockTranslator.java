@@ -1,11 +1,42 @@
 package org.geysermc.connector.network.translators.block;
 
 import com.github.steveice10.mc.protocol.data.game.world.block.BlockState;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import org.geysermc.connector.utils.Toolbox;
 
+import static org.geysermc.connector.network.translators.BlockEntityUtils.MINECRAFT;
+
 public class BlockTranslator {
 
+    /**
+     * The Java block entity id of every block state that needs one on Bedrock, even if the Java server doesn't send it
+     */
+    private final TIntObjectMap<String> blockEntityStates = new TIntObjectHashMap<>();
+
+    public BlockTranslator() {
+        Toolbox.BLOCK_ENTRIES.forEachEntry((javaId, block) -> {
+            String identifier = block.getJavaIdentifier();
+            int properties = identifier.indexOf('[');
+            String name = properties == -1 ? identifier : identifier.substring(0, properties);
+
+            //Signs are special
+            if (name.contains("sign")) {
+                blockEntityStates.put(javaId, MINECRAFT + "sign");
+            }
+            return true;
+        });
+    }
+
     public BlockEntry getBedrockBlock(BlockState state) {
         return Toolbox.BLOCK_ENTRIES.get(state.getId());
     }
+
+    /**
+     * @param state the Java block state
+     * @return the id of the Java block entity the block needs, or null if it doesn't need one
+     */
+    public String getBlockEntityId(BlockState state) {
+        return blockEntityStates.get(state.getId());
+    }
 }
@@ -19,8 +19,6 @@ public class SignDataMapper extends BlockEntityUtils.ExtraDataMapper {
 
         String id = BlockEntityUtils.getBedrockID((String) tag.get("id").getValue());
 
-        System.out.println(text);
-
         return CompoundTagBuilder.builder()
                 .stringTag("id", id)
                 .stringTag("Text", text)
@@ -31,6 +29,18 @@ public class SignDataMapper extends BlockEntityUtils.ExtraDataMapper {
                 .build("");
     }
 
+    @Override
+    public com.nukkitx.nbt.tag.CompoundTag getDefaultTags(int x, int y, int z) {
+        return CompoundTagBuilder.builder()
+                .stringTag("id", BlockEntityUtils.SIGN)
+                .stringTag("Text", "")
+                .intTag("x", x)
+                .intTag("y", y)
+                .intTag("z", z)
+                .byteTag("isMovable", (byte) 0)
+                .build("");
+    }
+
     //One letter name because I rly don't want to make the code at the top more than whats already there.
     private String c(String string) {
         return MessageUtils.getBedrockMessage(string);
@@ -28,17 +28,17 @@ package org.geysermc.connector.network.translators.inventory;
 import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.data.ItemData;
 import com.nukkitx.protocol.bedrock.packet.ContainerOpenPacket;
-import com.nukkitx.protocol.bedrock.packet.InventoryContentPacket;
-import com.nukkitx.protocol.bedrock.packet.InventorySlotPacket;
 import org.geysermc.connector.inventory.Inventory;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.TranslatorsInit;
+import org.geysermc.connector.utils.InventoryUtils;
 
 public class GenericInventoryTranslator extends InventoryTranslator {
 
     @Override
-    public void prepareInventory(GeyserSession session, Inventory inventory) {
+    public void prepareInventory(GeyserSession session, Inventory inventory, Runnable ready) {
         // TODO: Add code here
+        ready.run();
     }
 
     @Override
@@ -57,18 +57,12 @@ public class GenericInventoryTranslator extends InventoryTranslator {
             bedrockItems[i] = TranslatorsInit.getItemTranslator().translateToBedrock(inventory.getItems()[i]);
         }
 
-        InventoryContentPacket contentPacket = new InventoryContentPacket();
-        contentPacket.setContainerId(inventory.getId());
-        contentPacket.setContents(bedrockItems);
-        session.getUpstream().sendPacket(contentPacket);
+        InventoryUtils.sendChangedItems(session, inventory.getId(), bedrockItems);
     }
 
     @Override
     public void updateSlot(GeyserSession session, Inventory inventory, int slot) {
-        InventorySlotPacket slotPacket = new InventorySlotPacket();
-        slotPacket.setContainerId(inventory.getId());
-        slotPacket.setSlot(TranslatorsInit.getItemTranslator().translateToBedrock(inventory.getItems()[slot]));
-        slotPacket.setInventorySlot(slot);
-        session.getUpstream().sendPacket(slotPacket);
+        InventoryUtils.sendChangedItem(session, inventory.getId(), slot,
+                TranslatorsInit.getItemTranslator().translateToBedrock(inventory.getItems()[slot]));
     }
 }
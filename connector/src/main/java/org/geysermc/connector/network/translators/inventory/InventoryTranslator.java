@@ -30,7 +30,14 @@ import org.geysermc.connector.network.session.GeyserSession;
 
 public abstract class InventoryTranslator {
 
-    public abstract void prepareInventory(GeyserSession session, Inventory inventory);
+    /**
+     * Prepares the client for the container, for example by placing a block to open it with
+     *
+     * @param session the session of the player
+     * @param inventory the inventory to open
+     * @param ready run once the client can show the container, after which it is opened
+     */
+    public abstract void prepareInventory(GeyserSession session, Inventory inventory, Runnable ready);
     public abstract void openInventory(GeyserSession session, Inventory inventory);
     public abstract void updateInventory(GeyserSession session, Inventory inventory);
     public abstract void updateSlot(GeyserSession session, Inventory inventory, int slot);
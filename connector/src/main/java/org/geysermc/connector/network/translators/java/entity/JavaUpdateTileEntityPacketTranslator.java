@@ -12,11 +12,15 @@ import org.geysermc.connector.network.translators.PacketTranslator;
 public class JavaUpdateTileEntityPacketTranslator extends PacketTranslator<ServerUpdateTileEntityPacket> {
     @Override
     public void translate(ServerUpdateTileEntityPacket packet, GeyserSession session) {
+        CompoundTag tag = BlockEntityUtils.getExtraTags(packet.getNbt());
+        if (tag == null)
+            return;
+
         BlockEntityDataPacket bedrock = new BlockEntityDataPacket();
 
         Position pos = packet.getPosition();
 
-        bedrock.setData(BlockEntityUtils.getExtraTags(packet.getNbt()));
+        bedrock.setData(tag);
         bedrock.setBlockPosition(Vector3i.from(pos.getX(), pos.getY(), pos.getZ()));
 
         session.getUpstream().sendPacketImmediately(bedrock);
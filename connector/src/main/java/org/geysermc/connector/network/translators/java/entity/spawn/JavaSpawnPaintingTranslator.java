@@ -27,7 +27,6 @@ package org.geysermc.connector.network.translators.java.entity.spawn;
 
 import com.github.steveice10.mc.protocol.packet.ingame.server.entity.spawn.ServerSpawnPaintingPacket;
 import com.nukkitx.math.vector.Vector3f;
-import org.geysermc.api.Geyser;
 import org.geysermc.connector.entity.PaintingEntity;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.PacketTranslator;
@@ -39,7 +38,7 @@ public class JavaSpawnPaintingTranslator extends PacketTranslator<ServerSpawnPai
     public void translate(ServerSpawnPaintingPacket packet, GeyserSession session) {
         Vector3f position = Vector3f.from(packet.getPosition().getX(), packet.getPosition().getY(), packet.getPosition().getZ());
 
-        Geyser.getGeneralThreadPool().execute(() -> { // #slowdownbrother, just don't execute it directly
+        session.getExecutor().execute(() -> { // #slowdownbrother, just don't execute it directly
             PaintingEntity entity = new PaintingEntity(
                     packet.getEntityId(),
                     session.getEntityCache().getNextEntityId().incrementAndGet(),
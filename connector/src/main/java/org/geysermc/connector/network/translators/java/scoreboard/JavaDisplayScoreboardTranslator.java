@@ -28,13 +28,15 @@ package org.geysermc.connector.network.translators.java.scoreboard;
 import com.github.steveice10.mc.protocol.packet.ingame.server.scoreboard.ServerDisplayScoreboardPacket;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.PacketTranslator;
+import org.geysermc.connector.scoreboard.Scoreboard;
 
 public class JavaDisplayScoreboardTranslator extends PacketTranslator<ServerDisplayScoreboardPacket> {
 
     @Override
     public void translate(ServerDisplayScoreboardPacket packet, GeyserSession session) {
-        session.getScoreboardCache().getScoreboard().registerNewObjective(
-                packet.getName(), packet.getPosition()
-        );
+        Scoreboard scoreboard = session.getScoreboardCache().getScoreboard();
+        synchronized (scoreboard) {
+            scoreboard.registerNewObjective(packet.getName(), packet.getPosition());
+        }
     }
 }
@@ -41,23 +41,23 @@ public class JavaScoreboardObjectiveTranslator extends PacketTranslator<ServerSc
         ScoreboardCache cache = session.getScoreboardCache();
         Scoreboard scoreboard = cache.getScoreboard();
 
-        Objective objective = scoreboard.getObjective(packet.getName());
-
-        if (objective == null && packet.getAction() != ObjectiveAction.REMOVE) {
-            objective = scoreboard.registerNewObjective(packet.getName(), true);
-        }
-
-        switch (packet.getAction()) {
-            case ADD:
-            case UPDATE:
-                objective.setDisplayName(MessageUtils.getBedrockMessage(packet.getDisplayName()));
-                objective.setType(packet.getType().ordinal());
-                break;
-            case REMOVE:
-                scoreboard.unregisterObjective(packet.getName());
-                break;
+        synchronized (scoreboard) {
+            Objective objective = scoreboard.getObjective(packet.getName());
+
+            if (objective == null && packet.getAction() != ObjectiveAction.REMOVE) {
+                objective = scoreboard.registerNewObjective(packet.getName(), true);
+            }
+
+            switch (packet.getAction()) {
+                case ADD:
+                case UPDATE:
+                    objective.setDisplayName(MessageUtils.getBedrockMessage(packet.getDisplayName()));
+                    objective.setType(packet.getType().ordinal());
+                    break;
+                case REMOVE:
+                    scoreboard.unregisterObjective(packet.getName());
+                    break;
+            }
         }
-
-        if (objective != null && !objective.isTemp()) scoreboard.onUpdate();
     }
 }
@@ -41,34 +41,36 @@ public class JavaTeamTranslator extends PacketTranslator<ServerTeamPacket> {
 
     @Override
     public void translate(ServerTeamPacket packet, GeyserSession session) {
-        Geyser.getLogger().debug("Team packet " + packet.getTeamName() + " " + packet.getAction()+" "+ Arrays.toString(packet.getPlayers()));
+        Geyser.getLogger().debug(() -> "Team packet " + packet.getTeamName() + " " + packet.getAction()+" "+ Arrays.toString(packet.getPlayers()));
 
         Scoreboard scoreboard = session.getScoreboardCache().getScoreboard();
-        switch (packet.getAction()) {
-            case CREATE:
-                scoreboard.registerNewTeam(packet.getTeamName(), toPlayerSet(packet.getPlayers()))
-                        .setName(MessageUtils.getBedrockMessage(packet.getDisplayName()))
-                        .setPrefix(MessageUtils.getBedrockMessage(packet.getPrefix()))
-                        .setSuffix(MessageUtils.getBedrockMessage(packet.getSuffix()));
-                break;
-            case UPDATE:
-                scoreboard.getTeam(packet.getTeamName())
-                        .setName(MessageUtils.getBedrockMessage(packet.getDisplayName()))
-                        .setPrefix(MessageUtils.getBedrockMessage(packet.getPrefix()))
-                        .setSuffix(MessageUtils.getBedrockMessage(packet.getSuffix()))
-                        .setUpdateType(UpdateType.UPDATE);
-                break;
-            case ADD_PLAYER:
-                scoreboard.getTeam(packet.getTeamName()).addEntities(packet.getPlayers());
-                break;
-            case REMOVE_PLAYER:
-                scoreboard.getTeam(packet.getTeamName()).removeEntities(packet.getPlayers());
-                break;
-            case REMOVE:
-               scoreboard.removeTeam(packet.getTeamName());
-               break;
+        synchronized (scoreboard) {
+            switch (packet.getAction()) {
+                case CREATE:
+                    scoreboard.registerNewTeam(packet.getTeamName(), toPlayerSet(packet.getPlayers()))
+                            .setName(MessageUtils.getBedrockMessage(packet.getDisplayName()))
+                            .setPrefix(MessageUtils.getBedrockMessage(packet.getPrefix()))
+                            .setSuffix(MessageUtils.getBedrockMessage(packet.getSuffix()));
+                    break;
+                case UPDATE:
+                    scoreboard.getTeam(packet.getTeamName())
+                            .setName(MessageUtils.getBedrockMessage(packet.getDisplayName()))
+                            .setPrefix(MessageUtils.getBedrockMessage(packet.getPrefix()))
+                            .setSuffix(MessageUtils.getBedrockMessage(packet.getSuffix()))
+                            .setUpdateType(UpdateType.UPDATE);
+                    scoreboard.markDirty(scoreboard.getTeam(packet.getTeamName()));
+                    break;
+                case ADD_PLAYER:
+                    scoreboard.getTeam(packet.getTeamName()).addEntities(packet.getPlayers());
+                    break;
+                case REMOVE_PLAYER:
+                    scoreboard.getTeam(packet.getTeamName()).removeEntities(packet.getPlayers());
+                    break;
+                case REMOVE:
+                    scoreboard.removeTeam(packet.getTeamName());
+                    break;
+            }
         }
-        scoreboard.onUpdate();
     }
 
     private Set<String> toPlayerSet(String[] players) {
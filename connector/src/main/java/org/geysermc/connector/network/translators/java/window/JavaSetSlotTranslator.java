@@ -38,15 +38,12 @@ public class JavaSetSlotTranslator extends PacketTranslator<ServerSetSlotPacket>
     @Override
     public void translate(ServerSetSlotPacket packet, GeyserSession session) {
         InventoryCache inventoryCache = session.getInventoryCache();
-        if (!inventoryCache.getInventories().containsKey(packet.getWindowId())) {
+        Inventory inventory = inventoryCache.getInventories().get(packet.getWindowId());
+        if (inventory == null) {
             inventoryCache.cachePacket(packet.getWindowId(), packet);
             return;
         }
 
-        Inventory inventory = inventoryCache.getInventories().get(packet.getWindowId());
-        if (packet.getWindowId() != 0 && inventory.getWindowType() == null)
-            return;
-
         // Player inventory
         if (packet.getWindowId() == 0) {
             if (packet.getSlot() >= inventory.getItems().length)
@@ -57,12 +54,16 @@ public class JavaSetSlotTranslator extends PacketTranslator<ServerSetSlotPacket>
             inventory.setItems(items);
 
             InventoryUtils.refreshPlayerInventory(session, inventory);
+            return;
+        }
+
+        if (inventory.getWindowType() == null)
+            return;
 
-            if (inventory.isOpen()) {
-                InventoryUtils.updateSlot(session, packet);
-            } else {
-                inventoryCache.cachePacket(packet.getWindowId(), packet);
-            }
+        if (inventory.isOpen()) {
+            InventoryUtils.updateSlot(session, packet);
+        } else {
+            inventoryCache.cachePacket(packet.getWindowId(), packet);
         }
     }
 }
@@ -50,6 +50,12 @@ public class JavaWindowItemsTranslator extends PacketTranslator<ServerWindowItem
             return;
         }
 
+        // The container isn't shown yet, its contents are sent once it is
+        if (!inventory.isOpen()) {
+            inventoryCache.cachePacket(packet.getWindowId(), packet);
+            return;
+        }
+
         InventoryUtils.updateInventory(session, packet);
     }
 }
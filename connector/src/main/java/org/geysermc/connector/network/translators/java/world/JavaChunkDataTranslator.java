@@ -3,12 +3,9 @@ package org.geysermc.connector.network.translators.java.world;
 import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerChunkDataPacket;
 import com.nukkitx.math.vector.Vector2i;
 import com.nukkitx.math.vector.Vector3f;
-import com.nukkitx.network.VarInts;
 import com.nukkitx.protocol.bedrock.packet.LevelChunkPacket;
 import com.nukkitx.protocol.bedrock.packet.NetworkChunkPublisherUpdatePacket;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
-import org.geysermc.api.Geyser;
+import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.PacketTranslator;
 import org.geysermc.connector.utils.ChunkUtils;
@@ -19,7 +16,7 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
     @Override
     public void translate(ServerChunkDataPacket packet, GeyserSession session) {
         // Not sure if this is safe or not, however without this the client usually times out
-        Geyser.getConnector().getGeneralThreadPool().execute(() -> {
+        session.getExecutor().execute(() -> {
             Vector2i chunkPos = session.getLastChunkPosition();
             Vector3f position = session.getPlayerEntity().getPosition();
             Vector2i newChunkPos = Vector2i.from(position.getFloorX() >> 4, position.getFloorZ() >> 4);
@@ -34,8 +31,9 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
             }
 
             try {
-                ChunkUtils.ChunkData chunkData = ChunkUtils.translateToBedrock(packet.getColumn());
-                ByteBuf byteBuf = Unpooled.buffer(32);
+                GeyserConnector connector = session.getConnector();
+                ChunkUtils.ChunkData chunkData = ChunkUtils.translateToBedrock(packet.getColumn(), connector.getSectionCache(),
+                        connector.getChunkTranslationPool(), connector.getConfig().getChunkTranslation().getParallelThreshold());
                 ChunkSection[] sections = chunkData.sections;
 
                 int sectionCount = sections.length - 1;
@@ -44,18 +42,7 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
                 }
                 sectionCount++;
 
-                for (int i = 0; i < sectionCount; i++) {
-                    ChunkSection section = chunkData.sections[i];
-                    section.writeToNetwork(byteBuf);
-                }
-
-                byteBuf.writeBytes(chunkData.biomes); // Biomes - 256 bytes
-                byteBuf.writeByte(0); // Border blocks - Edu edition only
-                VarInts.writeUnsignedInt(byteBuf, 0); // extra data length, 0 for now
-                byteBuf.writeBytes(chunkData.blockEntities);
-
-                byte[] payload = new byte[byteBuf.writerIndex()];
-                byteBuf.readBytes(payload);
+                byte[] payload = ChunkUtils.serialize(chunkData, sectionCount);
 
                 LevelChunkPacket levelChunkPacket = new LevelChunkPacket();
                 levelChunkPacket.setSubChunksLength(sectionCount);
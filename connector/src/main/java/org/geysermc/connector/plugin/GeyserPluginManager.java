@@ -35,10 +35,18 @@ import java.awt.*;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GeyserPluginManager implements PluginManager {
+    private static final PluginListener[] NO_LISTENERS = new PluginListener[0];
+
     private final List<PluginListener> EVENTS = new ArrayList<>();
 
+    /**
+     * The listeners for each event class sorted by priority, rebuilt after a listener is registered
+     */
+    private final Map<Class<?>, PluginListener[]> handlers = new ConcurrentHashMap<>();
+
     @Getter
     private GeyserPluginLoader loader;
 
@@ -83,7 +91,11 @@ public class GeyserPluginManager implements PluginManager {
                     listener.clazz = m.getParameterTypes()[0];
                     listener.priority = m.getAnnotation(EventHandler.class).value();
                     listener.run = m;
-                    EVENTS.add(listener);
+                    listener.compile();
+                    synchronized (EVENTS) {
+                        EVENTS.add(listener);
+                        handlers.clear();
+                    }
                 }
             }
         } catch (Exception e) {
@@ -93,10 +105,38 @@ public class GeyserPluginManager implements PluginManager {
 
     @Override
     public void runEvent(Object o) {
-        for(EventHandler.EventPriority p : EventHandler.EventPriority.values()) {
+        for (PluginListener listener : getHandlers(o.getClass())) {
+            listener.run(o);
+        }
+    }
+
+    /**
+     * @param eventClass the class of the event
+     * @return true if any listener would be called for the given event class
+     */
+    public boolean hasListeners(Class<?> eventClass) {
+        return getHandlers(eventClass).length != 0;
+    }
+
+    private PluginListener[] getHandlers(Class<?> eventClass) {
+        PluginListener[] listeners = handlers.get(eventClass);
+        return listeners != null ? listeners : bakeHandlers(eventClass);
+    }
+
+    private PluginListener[] bakeHandlers(Class<?> eventClass) {
+        synchronized (EVENTS) {
+            List<PluginListener> listeners = new ArrayList<>();
             for (PluginListener listener : EVENTS) {
-                listener.runIfNeeded(p, o);
+                if (listener.clazz.isAssignableFrom(eventClass)) {
+                    listeners.add(listener);
+                }
             }
+            // Stable, so listeners with the same priority keep their registration order
+            listeners.sort(Comparator.comparing((PluginListener listener) -> listener.priority));
+
+            PluginListener[] baked = listeners.isEmpty() ? NO_LISTENERS : listeners.toArray(new PluginListener[0]);
+            handlers.put(eventClass, baked);
+            return baked;
         }
     }
 
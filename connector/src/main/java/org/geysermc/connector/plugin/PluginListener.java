@@ -5,24 +5,74 @@ import org.geysermc.api.events.Listener;
 import org.geysermc.api.plugin.Plugin;
 import org.geysermc.connector.console.GeyserLogger;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 public class PluginListener {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     Method run;
     Plugin plugin;
     Listener listener;
     Class clazz;
     EventHandler.EventPriority priority;
 
-    void runIfNeeded(EventHandler.EventPriority p, Object o) {
-        if(p.equals(priority) && clazz.isInstance(o)) {
-            try {
-                run.invoke(listener, o);
-            } catch (ReflectiveOperationException ex) {
-                GeyserLogger.DEFAULT.severe("Exception while trying to run event! Contact the maintainer of " + plugin.getName());
+    private EventExecutor executor;
 
-                ex.printStackTrace();
+    /**
+     * Creates the executor that calls the handler method. A class implementing
+     * {@link EventExecutor} is generated when the listener is visible from here,
+     * otherwise the call goes through a bound method handle.
+     */
+    void compile() throws IllegalAccessException {
+        run.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflect(run);
+
+        if (isVisible(run.getDeclaringClass()) && isVisible(clazz)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "execute",
+                        MethodType.methodType(EventExecutor.class, run.getDeclaringClass()),
+                        MethodType.methodType(void.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, clazz));
+                executor = (EventExecutor) site.getTarget().invoke(listener);
+                return;
+            } catch (Throwable ex) {
+                GeyserLogger.DEFAULT.debug("Could not generate an executor for " + run + ", using a method handle instead");
             }
         }
+
+        MethodHandle bound = handle.bindTo(listener).asType(MethodType.methodType(void.class, Object.class));
+        executor = event -> bound.invokeExact(event);
+    }
+
+    /**
+     * Classes from plugins are loaded by their own class loader, generated classes can only use them
+     * if they are public and can be found from the class loader of the connector as well.
+     */
+    private static boolean isVisible(Class<?> clazz) {
+        if (!Modifier.isPublic(clazz.getModifiers()))
+            return false;
+
+        try {
+            return Class.forName(clazz.getName(), false, PluginListener.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    void run(Object o) {
+        try {
+            executor.execute(o);
+        } catch (Throwable ex) {
+            GeyserLogger.DEFAULT.severe("Exception while trying to run event! Contact the maintainer of " + plugin.getName());
+
+            ex.printStackTrace();
+        }
     }
 }
@@ -79,12 +79,15 @@ public class Objective {
                     .setScore(score)
                     .setTeam(scoreboard.getTeamFor(id));
             scores.put(id, score1);
+            scoreboard.markDirty(score1);
         }
     }
 
     public void setScore(String id, int score) {
-        if (scores.containsKey(id)) {
-            scores.get(id).setScore(score).setUpdateType(UpdateType.ADD);
+        Score current = scores.get(id);
+        if (current != null) {
+            current.setScore(score).setUpdateType(UpdateType.ADD);
+            scoreboard.markDirty(current);
         } else {
             registerScore(id, score);
         }
@@ -100,6 +103,8 @@ public class Objective {
 
         scores.put(newText, newScore);
         oldScore.setUpdateType(UpdateType.REMOVE);
+        scoreboard.markDirty(oldScore);
+        scoreboard.markDirty(newScore);
     }
 
     public int getScore(String id) {
@@ -117,8 +122,10 @@ public class Objective {
     }
 
     public void resetScore(String id) {
-        if (scores.containsKey(id)) {
-            scores.get(id).setUpdateType(UpdateType.REMOVE);
+        Score score = scores.get(id);
+        if (score != null) {
+            score.setUpdateType(UpdateType.REMOVE);
+            scoreboard.markDirty(score);
         }
     }
 
@@ -129,12 +136,14 @@ public class Objective {
     public Objective setDisplayName(String displayName) {
         this.displayName = displayName;
         if (updateType == UpdateType.NOTHING) updateType = UpdateType.UPDATE;
+        scoreboard.markDirty(this);
         return this;
     }
 
     public Objective setType(int type) {
         this.type = type;
         if (updateType == UpdateType.NOTHING) updateType = UpdateType.UPDATE;
+        scoreboard.markDirty(this);
         return this;
     }
 
@@ -39,7 +39,12 @@ public class Score {
     private String name;
     private Team team;
     private int score;
-    private int oldScore = Integer.MIN_VALUE;
+
+    /**
+     * The display name the client currently shows for this score, or null if it wasn't sent yet
+     */
+    private String sentDisplayName;
+    private int sentScore;
 
     public Score(Objective objective, String name) {
         this.id = objective.getScoreboard().getNextId().getAndIncrement();
@@ -53,12 +58,4 @@ public class Score {
         }
         return name;
     }
-
-    public Score setScore(int score) {
-        if (oldScore == Integer.MIN_VALUE) {
-            this.oldScore = score;
-        }
-        this.score = score;
-        return this;
-    }
 }
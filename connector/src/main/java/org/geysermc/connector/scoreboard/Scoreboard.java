@@ -30,22 +30,47 @@ import com.nukkitx.protocol.bedrock.data.ScoreInfo;
 import com.nukkitx.protocol.bedrock.packet.RemoveObjectivePacket;
 import com.nukkitx.protocol.bedrock.packet.SetDisplayObjectivePacket;
 import com.nukkitx.protocol.bedrock.packet.SetScorePacket;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.geysermc.api.Geyser;
 import org.geysermc.connector.network.session.GeyserSession;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.geysermc.connector.scoreboard.UpdateType.*;
 
+/**
+ * Keeps track of the Java scoreboard and sends the changes to the Bedrock client.
+ * Every change marks the touched objectives, scores or teams as dirty and all changes
+ * made within one tick are sent together, so a line is only resent when it actually changed.
+ * Callers must hold the lock of this scoreboard while changing it.
+ */
 @Getter
 public class Scoreboard {
+    /**
+     * The time in milliseconds that changes are collected for before being sent (one Java tick)
+     */
+    private static final long UPDATE_INTERVAL = 50;
+
     private GeyserSession session;
     private AtomicLong nextId = new AtomicLong(0);
 
     private Map<String, Objective> objectives = new HashMap<>();
     private Map<String, Team> teams = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Team> entityTeams = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Set<Objective> dirtyObjectives = new LinkedHashSet<>();
+    @Getter(AccessLevel.NONE)
+    private final Set<Score> dirtyScores = new LinkedHashSet<>();
+    @Getter(AccessLevel.NONE)
+    private final Set<Team> dirtyTeams = new LinkedHashSet<>();
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean updateScheduled = new AtomicBoolean();
 
     public Scoreboard(GeyserSession session) {
         this.session = session;
@@ -72,6 +97,7 @@ public class Scoreboard {
             objective = new Objective(this, objectiveId, displaySlot, "unknown", 0);
             objectives.put(objectiveId, objective);
         }
+        markDirty(objective);
         return objective;
     }
 
@@ -81,17 +107,38 @@ public class Scoreboard {
             return getTeam(teamName);
         }
 
-        Team team = new Team(this, teamName).setEntities(players);
+        Team team = new Team(this, teamName);
+        team.addEntities(players.toArray(new String[0]));
         teams.put(teamName, team);
+        return team;
+    }
 
-        for (Objective objective : objectives.values()) {
-            for (Score score : objective.getScores().values()) {
-                if (players.contains(score.getName())) {
-                    score.setTeam(team);
-                }
-            }
+    /**
+     * Moves the given entity to the given team, an entity can only be in one team at a time
+     *
+     * @param entity the name of the entity
+     * @param team the team the entity joined
+     * @return true if the entity wasn't in the given team yet
+     */
+    boolean addToTeam(String entity, Team team) {
+        Team previous = entityTeams.put(entity, team);
+        if (previous == team) {
+            return false;
         }
-        return team;
+        if (previous != null) {
+            previous.getEntities().remove(entity);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the given entity from the index if it is still in the given team
+     *
+     * @param entity the name of the entity
+     * @param team the team the entity left
+     */
+    void removeFromTeam(String entity, Team team) {
+        entityTeams.remove(entity, team);
     }
 
     public Objective getObjective(String objectiveName) {
@@ -103,105 +150,176 @@ public class Scoreboard {
     }
 
     public void unregisterObjective(String objectiveName) {
-        Objective objective = getObjective(objectiveName);
-        if (objective != null) objective.setUpdateType(REMOVE);
+        // Removed right away so the name can be reused, the client is told on the next update
+        Objective objective = objectives.remove(objectiveName);
+        if (objective != null) {
+            objective.setUpdateType(REMOVE);
+            markDirty(objective);
+        }
     }
 
     public void removeTeam(String teamName) {
         Team remove = teams.remove(teamName);
-        if (remove != null) remove.setUpdateType(REMOVE);
+        if (remove != null) {
+            for (String entity : remove.getEntities()) {
+                entityTeams.remove(entity, remove);
+            }
+            remove.setUpdateType(REMOVE);
+            markDirty(remove);
+        }
     }
 
-    public void onUpdate() {
-        Set<Objective> changedObjectives = new HashSet<>();
-        List<ScoreInfo> addScores = new ArrayList<>();
-        List<ScoreInfo> removeScores = new ArrayList<>();
-
-        for (String objectiveId : new ArrayList<>(objectives.keySet())) {
-            Objective objective = objectives.get(objectiveId);
-            if (objective.isTemp()) {
-                Geyser.getLogger().debug("Ignoring temp Scoreboard Objective '"+ objectiveId +'\'');
-                continue;
-            }
+    public void markDirty(Objective objective) {
+        dirtyObjectives.add(objective);
+        requestUpdate();
+    }
 
-            if (objective.getUpdateType() != NOTHING) changedObjectives.add(objective);
+    public void markDirty(Score score) {
+        dirtyScores.add(score);
+        requestUpdate();
+    }
 
-            boolean globalUpdate = objective.getUpdateType() == UPDATE;
-            boolean globalAdd = objective.getUpdateType() == ADD || globalUpdate;
-            boolean globalRemove = objective.getUpdateType() == REMOVE || globalUpdate;
+    /**
+     * Marks the scores of every entity in the given team as dirty
+     *
+     * @param team the team that changed
+     */
+    public void markDirty(Team team) {
+        markDirty(team, team.getEntities());
+    }
 
-            boolean hasUpdate = globalUpdate;
+    /**
+     * Marks the scores of the given entities as dirty after they joined or left the given team
+     *
+     * @param team the team that changed
+     * @param entities the names of the entities
+     */
+    void markDirty(Team team, Collection<String> entities) {
+        dirtyTeams.add(team);
+        markDirty(entities);
+    }
 
-            List<Score> handledScores = new ArrayList<>();
-            for (String identifier : new HashSet<>(objective.getScores().keySet())) {
-                Score score = objective.getScores().get(identifier);
-                Team team = score.getTeam();
+    /**
+     * Marks the scores of the given entities in every objective as dirty
+     *
+     * @param entities the names of the entities
+     */
+    public void markDirty(Collection<String> entities) {
+        for (Objective objective : objectives.values()) {
+            for (String entity : entities) {
+                Score score = objective.getScores().get(entity);
+                if (score != null) {
+                    dirtyScores.add(score);
+                }
+            }
+        }
+        requestUpdate();
+    }
 
-                boolean inTeam = team != null && team.getEntities().contains(score.getName());
+    /**
+     * Schedules an update at the end of the current tick, if one isn't scheduled already
+     */
+    public void requestUpdate() {
+        if (!updateScheduled.compareAndSet(false, true))
+            return;
 
-                boolean teamAdd = team != null && (team.getUpdateType() == ADD || team.getUpdateType() == UPDATE);
-                boolean teamRemove = team != null && (team.getUpdateType() == REMOVE || team.getUpdateType() == UPDATE);
+        session.getExecutor().schedule(() -> {
+            updateScheduled.set(false);
+            if (session.getUpstream().isClosed())
+                return;
 
-                if (team != null && (team.getUpdateType() == REMOVE || !inTeam)) score.setTeam(null);
+            synchronized (this) {
+                onUpdate();
+            }
+        }, UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
 
-                boolean add = (hasUpdate || globalAdd || teamAdd || teamRemove || score.getUpdateType() == ADD || score.getUpdateType() == UPDATE) && (score.getUpdateType() != REMOVE);
-                boolean remove = hasUpdate || globalRemove || teamAdd || teamRemove || score.getUpdateType() == REMOVE || score.getUpdateType() == UPDATE;
+    /**
+     * Sends everything that changed since the last update to the client,
+     * using at most one remove and one set packet for all scores.
+     */
+    public void onUpdate() {
+        List<ScoreInfo> addScores = new ArrayList<>();
+        List<ScoreInfo> removeScores = new ArrayList<>();
 
-                boolean updated = false;
-                if (!hasUpdate) {
-                    updated = hasUpdate = add;
-                }
+        for (Objective objective : dirtyObjectives) {
+            if (objective.isTemp()) {
+                Geyser.getLogger().debug("Ignoring temp Scoreboard Objective '" + objective.getObjectiveName() + '\'');
+                continue;
+            }
 
-                if (updated) {
-                    for (Score score1 : handledScores) {
-                        ScoreInfo scoreInfo = new ScoreInfo(score1.getId(), score1.getObjective().getObjectiveName(), score1.getScore(), score1.getDisplayName());
-                        addScores.add(scoreInfo);
-                        removeScores.add(scoreInfo);
+            switch (objective.getUpdateType()) {
+                case REMOVE:
+                    sendRemoveObjective(objective);
+                    for (Score score : objective.getScores().values()) {
+                        String sentDisplayName = score.getSentDisplayName();
+                        if (sentDisplayName != null) {
+                            removeScores.add(new ScoreInfo(score.getId(), objective.getObjectiveName(), score.getSentScore(), sentDisplayName));
+                            score.setSentDisplayName(null);
+                        }
                     }
-                }
+                    break;
+                case UPDATE:
+                    // Bedrock can't change an existing objective, so it has to be sent again
+                    sendRemoveObjective(objective);
+                case ADD:
+                    sendDisplayObjective(objective);
+                    for (Score score : objective.getScores().values()) {
+                        score.setSentDisplayName(null);
+                        dirtyScores.add(score);
+                    }
+                    break;
+            }
+            objective.setUpdateType(NOTHING);
+        }
+        dirtyObjectives.clear();
 
-                if (add) {
-                    addScores.add(new ScoreInfo(score.getId(), score.getObjective().getObjectiveName(), score.getScore(), score.getDisplayName()));
-                }
-                if (remove) {
-                    removeScores.add(new ScoreInfo(score.getId(), score.getObjective().getObjectiveName(), score.getOldScore(), score.getDisplayName()));
-                }
-                score.setOldScore(score.getScore());
+        for (Score score : dirtyScores) {
+            Objective objective = score.getObjective();
+            if (objective.isTemp() || objectives.get(objective.getObjectiveName()) != objective) {
+                continue;
+            }
 
-                if (score.getUpdateType() == REMOVE) {
+            String sentDisplayName = score.getSentDisplayName();
+            if (score.getUpdateType() == REMOVE) {
+                if (sentDisplayName != null) {
+                    removeScores.add(new ScoreInfo(score.getId(), objective.getObjectiveName(), score.getSentScore(), sentDisplayName));
+                }
+                if (objective.getScores().get(score.getName()) == score) {
                     objective.removeScore(score.getName());
                 }
+                continue;
+            }
 
-                if (add || remove) {
-                    changedObjectives.add(objective);
-                } else { // stays the same like before
-                    handledScores.add(score);
-                }
-                score.setUpdateType(NOTHING);
+            Team team = score.getTeam();
+            if (team != null && (team.getUpdateType() == REMOVE || !team.getEntities().contains(score.getName()))) {
+                score.setTeam(null);
             }
-        }
 
-        for (Objective objective : changedObjectives) {
-            boolean update = objective.getUpdateType() == NOTHING || objective.getUpdateType() == UPDATE;
-            if (objective.getUpdateType() == REMOVE || update) {
-                RemoveObjectivePacket removeObjectivePacket = new RemoveObjectivePacket();
-                removeObjectivePacket.setObjectiveId(objective.getObjectiveName());
-                session.getUpstream().sendPacket(removeObjectivePacket);
-                if (objective.getUpdateType() == REMOVE) {
-                    objectives.remove(objective.getObjectiveName()); // now we can deregister
+            String displayName = score.getDisplayName();
+            if (displayName.equals(sentDisplayName)) {
+                if (score.getScore() == score.getSentScore()) {
+                    continue; // nothing the client can see has changed
                 }
+            } else if (sentDisplayName != null) {
+                // Setting a score only updates its value, a new name needs the line to be added again
+                removeScores.add(new ScoreInfo(score.getId(), objective.getObjectiveName(), score.getSentScore(), sentDisplayName));
             }
-            if (objective.getUpdateType() == ADD || update) {
-                SetDisplayObjectivePacket displayObjectivePacket = new SetDisplayObjectivePacket();
-                displayObjectivePacket.setObjectiveId(objective.getObjectiveName());
-                displayObjectivePacket.setDisplayName(objective.getDisplayName());
-                displayObjectivePacket.setCriteria("dummy");
-                displayObjectivePacket.setDisplaySlot(objective.getDisplaySlot());
-                displayObjectivePacket.setSortOrder(1); // ??
-                session.getUpstream().sendPacket(displayObjectivePacket);
+
+            addScores.add(new ScoreInfo(score.getId(), objective.getObjectiveName(), score.getScore(), displayName));
+            score.setSentDisplayName(displayName);
+            score.setSentScore(score.getScore());
+            score.setUpdateType(NOTHING);
+        }
+        dirtyScores.clear();
+
+        for (Team team : dirtyTeams) {
+            // Removed teams keep their state, so scores still pointing at them are shown without it
+            if (team.getUpdateType() != REMOVE) {
+                team.setUpdateType(NOTHING);
             }
-            objective.setUpdateType(NOTHING);
         }
+        dirtyTeams.clear();
 
         if (!removeScores.isEmpty()) {
             SetScorePacket setScorePacket = new SetScorePacket();
@@ -218,35 +336,34 @@ public class Scoreboard {
         }
     }
 
-    public void despawnObjective(Objective objective) {
+    private void sendRemoveObjective(Objective objective) {
         RemoveObjectivePacket removeObjectivePacket = new RemoveObjectivePacket();
         removeObjectivePacket.setObjectiveId(objective.getObjectiveName());
         session.getUpstream().sendPacket(removeObjectivePacket);
-        objectives.remove(objective.getDisplayName());
-
-        List<ScoreInfo> toRemove = new ArrayList<>();
-        for (String identifier : objective.getScores().keySet()) {
-            Score score = objective.getScores().get(identifier);
-            toRemove.add(new ScoreInfo(
-                    score.getId(), score.getObjective().getObjectiveName(),
-                    0, ""
-            ));
-        }
+    }
 
-        if (!toRemove.isEmpty()) {
-            SetScorePacket setScorePacket = new SetScorePacket();
-            setScorePacket.setAction(SetScorePacket.Action.REMOVE);
-            setScorePacket.setInfos(toRemove);
-            session.getUpstream().sendPacket(setScorePacket);
-        }
+    private void sendDisplayObjective(Objective objective) {
+        SetDisplayObjectivePacket displayObjectivePacket = new SetDisplayObjectivePacket();
+        displayObjectivePacket.setObjectiveId(objective.getObjectiveName());
+        displayObjectivePacket.setDisplayName(objective.getDisplayName());
+        displayObjectivePacket.setCriteria("dummy");
+        displayObjectivePacket.setDisplaySlot(objective.getDisplaySlot());
+        displayObjectivePacket.setSortOrder(1); // ??
+        session.getUpstream().sendPacket(displayObjectivePacket);
+    }
+
+    /**
+     * Removes the given objective and its scores from the client on the next update
+     *
+     * @param objective the objective to remove
+     */
+    public void despawnObjective(Objective objective) {
+        objectives.remove(objective.getObjectiveName(), objective);
+        objective.setUpdateType(REMOVE);
+        markDirty(objective);
     }
 
     public Team getTeamFor(String entity) {
-        for (Team team : teams.values()) {
-            if (team.getEntities().contains(entity)) {
-                return team;
-            }
-        }
-        return null;
+        return entityTeams.get(entity);
     }
 }
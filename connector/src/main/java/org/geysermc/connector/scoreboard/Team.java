@@ -1,10 +1,12 @@
 package org.geysermc.connector.scoreboard;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -20,6 +22,7 @@ public class Team {
     private String name;
     private String prefix;
     private String suffix;
+    @Setter(AccessLevel.NONE)
     private Set<String> entities = new HashSet<>();
 
 
@@ -31,25 +34,30 @@ public class Team {
     public void addEntities(String... names) {
         List<String> added = new ArrayList<>();
         for (String name : names) {
-            if (!entities.contains(name)) {
+            if (scoreboard.addToTeam(name, this)) {
                 entities.add(name);
                 added.add(name);
             }
         }
         setUpdateType(UpdateType.UPDATE);
         for (Objective objective : scoreboard.getObjectives().values()) {
-            for (Score score : objective.getScores().values()) {
-                if (added.contains(score.getName())) {
+            for (String name : added) {
+                Score score = objective.getScores().get(name);
+                if (score != null) {
                     score.setTeam(this);
                 }
             }
         }
+        scoreboard.markDirty(this, added);
     }
 
     public void removeEntities(String... names) {
         for (String name : names) {
-            entities.remove(name);
+            if (entities.remove(name)) {
+                scoreboard.removeFromTeam(name, this);
+            }
         }
         setUpdateType(UpdateType.UPDATE);
+        scoreboard.markDirty(this, Arrays.asList(names));
     }
 }
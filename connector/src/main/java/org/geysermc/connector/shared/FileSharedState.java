@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.shared;
+
+import org.geysermc.connector.console.GeyserLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared state kept in a directory, so Geyser processes on the same machine or on a shared
+ * file system see the same entries.
+ *
+ * Every entry is a file that is replaced at once when it changes, so it can be read without
+ * locking. Changes that depend on the previous value lock the namespace for this process and
+ * for the others. Errors are logged and treated as a missing entry, so a broken directory
+ * doesn't keep players from joining.
+ */
+public class FileSharedState implements SharedState {
+    private static final String LOCK_FILE = ".lock";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int HEADER_SIZE = Long.BYTES;
+
+    private final Path root;
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public FileSharedState(String path) {
+        this.root = Paths.get(path);
+        try {
+            Files.createDirectories(root);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Could not create the shared state directory " + root.toAbsolutePath(), ex);
+        }
+    }
+
+    @Override
+    public byte[] get(String namespace, String key) {
+        try {
+            Path file = file(namespace, key);
+            ByteBuffer entry = read(file);
+            if (entry == null)
+                return null;
+
+            if (isExpired(entry.getLong(0), System.currentTimeMillis())) {
+                deleteIfExpired(namespace, file);
+                return null;
+            }
+            return value(entry);
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.warning("Could not read " + namespace + "/" + key + " from the shared state: " + ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String namespace, String key, byte[] value, long ttl) {
+        try {
+            write(file(namespace, key), expiry(ttl), value);
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.warning("Could not write " + namespace + "/" + key + " to the shared state: " + ex);
+        }
+    }
+
+    @Override
+    public boolean remove(String namespace, String key, byte[] expected) {
+        try {
+            return locked(namespace, () -> {
+                // Not through get, which would lock the namespace again to delete an expired entry
+                Path file = file(namespace, key);
+                ByteBuffer entry = read(file);
+                byte[] value = entry == null || isExpired(entry.getLong(0), System.currentTimeMillis()) ? null : value(entry);
+                if (!Arrays.equals(value, expected))
+                    return false;
+
+                Files.deleteIfExists(file);
+                return true;
+            });
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.warning("Could not remove " + namespace + "/" + key + " from the shared state: " + ex);
+            return false;
+        }
+    }
+
+    @Override
+    public long increment(String namespace, String key, long ttl) {
+        try {
+            return locked(namespace, () -> {
+                Path file = file(namespace, key);
+                ByteBuffer entry = read(file);
+
+                long expiresAt;
+                long counter;
+                if (entry == null || entry.remaining() < HEADER_SIZE + Long.BYTES || isExpired(entry.getLong(0), System.currentTimeMillis())) {
+                    expiresAt = expiry(ttl);
+                    counter = 1;
+                } else {
+                    expiresAt = entry.getLong(0);
+                    counter = entry.getLong(HEADER_SIZE) + 1;
+                }
+
+                write(file, expiresAt, ByteBuffer.allocate(Long.BYTES).putLong(0, counter).array());
+                return counter;
+            });
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.warning("Could not increment " + namespace + "/" + key + " in the shared state: " + ex);
+            return 0;
+        }
+    }
+
+    @Override
+    public int count(String namespace) {
+        try {
+            return locked(namespace, () -> sweep(namespace));
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.warning("Could not count the entries of " + namespace + " in the shared state: " + ex);
+            return 0;
+        }
+    }
+
+    @Override
+    public void sweep() {
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                String namespace = directory.getFileName().toString();
+                try {
+                    locked(namespace, () -> sweep(namespace));
+                } catch (IOException ex) {
+                    GeyserLogger.DEFAULT.warning("Could not remove the expired entries of " + namespace + " from the shared state: " + ex);
+                }
+            }
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.warning("Could not list the namespaces of the shared state: " + ex);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Runs the action while holding the lock of the namespace, both in this process and in the others
+     */
+    private <T> T locked(String namespace, IOSupplier<T> action) throws IOException {
+        // File locks are held by the process, so threads of this process have to wait for each other first
+        synchronized (locks.computeIfAbsent(namespace, key -> new Object())) {
+            try (FileChannel channel = FileChannel.open(directory(namespace).resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.get();
+            }
+        }
+    }
+
+    /**
+     * Deletes the expired entries of the namespace, the lock of the namespace has to be held
+     *
+     * @return the amount of entries that didn't expire
+     */
+    private int sweep(String namespace) throws IOException {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory(namespace))) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.equals(LOCK_FILE) || name.endsWith(TEMP_SUFFIX))
+                    continue;
+
+                ByteBuffer entry = read(file);
+                if (entry == null)
+                    continue;
+
+                if (isExpired(entry.getLong(0), now)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deletes an entry that was read as expired, unless another process replaced it since
+     */
+    private void deleteIfExpired(String namespace, Path file) {
+        try {
+            locked(namespace, () -> {
+                ByteBuffer entry = read(file);
+                if (entry != null && isExpired(entry.getLong(0), System.currentTimeMillis()))
+                    Files.deleteIfExists(file);
+                return null;
+            });
+        } catch (IOException ex) {
+            GeyserLogger.DEFAULT.warning("Could not remove an expired entry of " + namespace + " from the shared state: " + ex);
+        }
+    }
+
+    /**
+     * @return the entry including its header, or null if it doesn't exist
+     */
+    private static ByteBuffer read(Path file) throws IOException {
+        try {
+            ByteBuffer entry = ByteBuffer.wrap(Files.readAllBytes(file));
+            return entry.remaining() < HEADER_SIZE ? null : entry;
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+    }
+
+    private static byte[] value(ByteBuffer entry) {
+        byte[] value = new byte[entry.remaining() - HEADER_SIZE];
+        entry.position(HEADER_SIZE);
+        entry.get(value);
+        return value;
+    }
+
+    /**
+     * Writes a new file and moves it over the entry, so no one reads a half written entry
+     */
+    private static void write(Path file, long expiresAt, byte[] value) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        ByteBuffer entry = ByteBuffer.allocate(HEADER_SIZE + value.length);
+        entry.putLong(expiresAt).put(value);
+        try {
+            Files.write(temp, entry.array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path directory(String namespace) throws IOException {
+        return Files.createDirectories(root.resolve(namespace));
+    }
+
+    /**
+     * Keys can be anything, like URLs, so they're hashed into a valid file name
+     */
+    private Path file(String namespace, String key) throws IOException {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return directory(namespace).resolve(name.toString());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static long expiry(long ttl) {
+        return ttl > 0 ? System.currentTimeMillis() + ttl : 0;
+    }
+
+    private static boolean isExpired(long expiresAt, long now) {
+        return expiresAt != 0 && now >= expiresAt;
+    }
+
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.shared;
+
+import lombok.AllArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared state that lives in this process only, used when Geyser runs on its own
+ */
+public class MemorySharedState implements SharedState {
+
+    private final Map<String, Map<String, Entry>> namespaces = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] get(String namespace, String key) {
+        Map<String, Entry> entries = namespace(namespace);
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return null;
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            // Only removes this entry, not one put in the meantime
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public void put(String namespace, String key, byte[] value, long ttl) {
+        namespace(namespace).put(key, new Entry(value, expiry(ttl), 0));
+    }
+
+    @Override
+    public boolean remove(String namespace, String key, byte[] expected) {
+        boolean[] removed = new boolean[1];
+        namespace(namespace).computeIfPresent(key, (k, entry) -> {
+            if (!Arrays.equals(entry.value, expected))
+                return entry;
+
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public long increment(String namespace, String key, long ttl) {
+        long now = System.currentTimeMillis();
+        return namespace(namespace).compute(key, (k, entry) -> {
+            if (entry == null || entry.isExpired(now))
+                return new Entry(null, expiry(ttl), 1);
+
+            return new Entry(null, entry.expiresAt, entry.counter + 1);
+        }).counter;
+    }
+
+    @Override
+    public int count(String namespace) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> entries = namespace(namespace);
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        return entries.size();
+    }
+
+    @Override
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Map<String, Entry> entries : namespaces.values()) {
+            entries.values().removeIf(entry -> entry.isExpired(now));
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        namespaces.clear();
+    }
+
+    private Map<String, Entry> namespace(String namespace) {
+        return namespaces.computeIfAbsent(namespace, key -> new ConcurrentHashMap<>());
+    }
+
+    private static long expiry(long ttl) {
+        return ttl > 0 ? System.currentTimeMillis() + ttl : 0;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final byte[] value;
+        private final long expiresAt;
+        private final long counter;
+
+        private boolean isExpired(long now) {
+            return expiresAt != 0 && now >= expiresAt;
+        }
+    }
+}
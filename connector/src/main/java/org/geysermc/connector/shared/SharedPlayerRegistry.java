@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.shared;
+
+import org.geysermc.connector.console.GeyserLogger;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.SessionRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the players of this process to the shared state, so every process knows how many
+ * players are online in total.
+ *
+ * Entries are refreshed regularly and expire when they aren't, so players of a process that
+ * stopped without cleaning up are removed after a while.
+ */
+public class SharedPlayerRegistry {
+    private static final String NAMESPACE = "players";
+    private static final long REFRESH_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    private static final long ENTRY_TTL = REFRESH_INTERVAL * 3;
+
+    private final SharedState state;
+    private final SessionRegistry sessions;
+    private final ScheduledExecutorService executor;
+    private final byte[] nodeId;
+
+    public SharedPlayerRegistry(SharedState state, SessionRegistry sessions, ScheduledExecutorService executor, String nodeId) {
+        this.state = state;
+        this.sessions = sessions;
+        this.executor = executor;
+        this.nodeId = nodeId.getBytes(StandardCharsets.UTF_8);
+
+        executor.scheduleAtFixedRate(this::refresh, REFRESH_INTERVAL, REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param session the session of a player that joined this process
+     */
+    public void publish(GeyserSession session) {
+        executor.execute(() -> state.put(NAMESPACE, key(session), nodeId, ENTRY_TTL));
+    }
+
+    /**
+     * @param session the session of a player that left this process
+     */
+    public void withdraw(GeyserSession session) {
+        // The player may already have joined another process, whose entry has to stay
+        executor.execute(() -> state.remove(NAMESPACE, key(session), nodeId));
+    }
+
+    /**
+     * Counts the players of every process, which may block
+     *
+     * @return the amount of players online
+     */
+    public int getPlayerCount() {
+        return state.count(NAMESPACE);
+    }
+
+    private void refresh() {
+        try {
+            for (GeyserSession session : sessions.getSessions()) {
+                state.put(NAMESPACE, key(session), nodeId, ENTRY_TTL);
+            }
+        } catch (Exception ex) {
+            GeyserLogger.DEFAULT.warning("Could not refresh the players in the shared state: " + ex);
+        }
+    }
+
+    private static String key(GeyserSession session) {
+        return session.getAuthenticationData().getUUID().toString();
+    }
+}
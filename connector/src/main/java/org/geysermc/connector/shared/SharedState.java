@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.shared;
+
+import org.geysermc.connector.configuration.SharedStateInfo;
+
+/**
+ * State shared by every Geyser process behind the same Bedrock address, like skins, login
+ * limits and the players online.
+ *
+ * Entries are grouped in namespaces and can expire, so a process that stops doesn't leave its
+ * entries behind forever. Implementations may talk to other machines, so calls can block and
+ * should be kept short.
+ */
+public interface SharedState {
+
+    /**
+     * @param namespace the namespace of the entry
+     * @param key the key of the entry
+     * @return the value of the entry, or null if there is none or it expired
+     */
+    byte[] get(String namespace, String key);
+
+    /**
+     * Sets the value of an entry, replacing the previous value and expiry
+     *
+     * @param namespace the namespace of the entry
+     * @param key the key of the entry
+     * @param value the value
+     * @param ttl the milliseconds until the entry expires, 0 or less to keep it until it's removed
+     */
+    void put(String namespace, String key, byte[] value, long ttl);
+
+    /**
+     * Removes an entry if it still has the given value
+     *
+     * @param namespace the namespace of the entry
+     * @param key the key of the entry
+     * @param expected the value the entry should have
+     * @return if the entry was removed
+     */
+    boolean remove(String namespace, String key, byte[] expected);
+
+    /**
+     * Increments a counter, which is created with the given expiry if it doesn't exist.
+     * Incrementing doesn't extend the expiry, so a counter per time window can be used as a rate limit.
+     *
+     * @param namespace the namespace of the counter
+     * @param key the key of the counter
+     * @param ttl the milliseconds until a new counter expires
+     * @return the value after incrementing
+     */
+    long increment(String namespace, String key, long ttl);
+
+    /**
+     * @param namespace the namespace
+     * @return the amount of entries in the namespace that didn't expire
+     */
+    int count(String namespace);
+
+    /**
+     * Removes the expired entries of every namespace. Reads already skip expired entries, this
+     * frees the ones nothing reads anymore, like the counter of a past time window.
+     */
+    void sweep();
+
+    /**
+     * @return if other processes see the entries too, otherwise storing something this process
+     * already keeps only costs memory
+     */
+    default boolean isShared() {
+        return true;
+    }
+
+    void close();
+
+    /**
+     * Creates the shared state from the config, the type is either memory, file or the name of a
+     * class implementing this interface with a public constructor taking the config
+     *
+     * @param config the config
+     * @return the shared state
+     */
+    static SharedState create(SharedStateInfo config) {
+        switch (config.getType().toLowerCase()) {
+            case "memory":
+                return new MemorySharedState();
+            case "file":
+                return new FileSharedState(config.getPath());
+            default:
+                try {
+                    return (SharedState) Class.forName(config.getType()).getConstructor(SharedStateInfo.class).newInstance(config);
+                } catch (ReflectiveOperationException | ClassCastException ex) {
+                    throw new IllegalArgumentException("Unknown shared state type " + config.getType(), ex);
+                }
+        }
+    }
+}
@@ -12,97 +12,272 @@ import com.nukkitx.nbt.stream.NBTOutputStream;
 import com.nukkitx.nbt.tag.IntTag;
 import com.nukkitx.nbt.tag.StringTag;
 import com.nukkitx.nbt.tag.Tag;
+import com.nukkitx.network.VarInts;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.AllArgsConstructor;
+import org.geysermc.connector.console.GeyserLogger;
 import org.geysermc.connector.network.translators.BlockEntityUtils;
 import org.geysermc.connector.network.translators.TranslatorsInit;
 import org.geysermc.connector.network.translators.block.BlockEntry;
 import org.geysermc.connector.world.chunk.ChunkSection;
+import org.geysermc.connector.world.chunk.SectionCache;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-
-import static org.geysermc.connector.network.translators.BlockEntityUtils.MINECRAFT;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class ChunkUtils {
 
+    private static final int[] NO_BLOCK_ENTITIES = new int[0];
+    private static final int BLOCK_ENTITY_SIZE_ESTIMATE = 64;
+
     public static ChunkData translateToBedrock(Column column) {
+        return translateToBedrock(column, null, null, 0);
+    }
+
+    /**
+     * @param column the Java column
+     * @param cache the cache of translated sections, or null to translate every section
+     * @param pool the pool to translate sections in parallel on, or null to translate them on this thread
+     * @param parallelThreshold the least amount of non empty sections a column needs to be translated in parallel
+     * @return the translated column
+     */
+    public static ChunkData translateToBedrock(Column column, SectionCache cache, ForkJoinPool pool, int parallelThreshold) {
         ChunkData chunkData = new ChunkData();
 
         Chunk[] chunks = column.getChunks();
         int chunkSectionCount = chunks.length;
         chunkData.sections = new ChunkSection[chunkSectionCount];
+        chunkData.encodedSections = new byte[chunkSectionCount][];
+
+        int nonEmpty = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk != null && !chunk.isEmpty()) {
+                nonEmpty++;
+            }
+        }
 
-        //Will be useful later
-        List<CompoundTag> tiles = new ArrayList<>(Arrays.asList(column.getTileEntities()));
+        TranslatedSection[] translated = new TranslatedSection[chunkSectionCount];
+        if (pool != null && nonEmpty >= Math.max(2, parallelThreshold)) {
+            // Sections are encoded on the worker as well, so the payload only has to be copied together
+            pool.invoke(new SectionTask(chunks, translated, cache, 0, chunkSectionCount));
+        } else {
+            for (int chunkY = 0; chunkY < chunkSectionCount; chunkY++) {
+                translated[chunkY] = translateSection(chunks[chunkY], cache, false);
+            }
+        }
 
         for (int chunkY = 0; chunkY < chunkSectionCount; chunkY++) {
-            chunkData.sections[chunkY] = new ChunkSection();
-            Chunk chunk = chunks[chunkY];
+            chunkData.sections[chunkY] = translated[chunkY].section;
+            chunkData.encodedSections[chunkY] = translated[chunkY].encoded;
+        }
+
+        // Block entities sent by the Java server come first, blocks that need one on Bedrock get a default one
+        TLongSet positions = new TLongHashSet();
+        for (CompoundTag tag : column.getTileEntities()) {
+            // A broken block entity is left out, instead of the whole column
+            com.nukkitx.nbt.tag.CompoundTag blockEntity;
+            long position;
+            try {
+                blockEntity = BlockEntityUtils.getExtraTags(tag);
+                if (blockEntity == null)
+                    continue;
 
-            if (chunk == null || chunk.isEmpty())
+                position = blockPosition(((Number) tag.get("x").getValue()).intValue(),
+                        ((Number) tag.get("y").getValue()).intValue(), ((Number) tag.get("z").getValue()).intValue());
+            } catch (Exception ex) {
+                GeyserLogger.DEFAULT.warning("Skipping a block entity in chunk " + column.getX() + ", " + column.getZ() + " that could not be translated: " + ex);
                 continue;
+            }
 
-            ChunkSection section = chunkData.sections[chunkY];
+            chunkData.blockEntities.add(blockEntity);
+            positions.add(position);
+        }
 
-            for (int x = 0; x < 16; x++) {
-                for (int y = 0; y < 16; y++) {
-                    for (int z = 0; z < 16; z++) {
-                        BlockState blockState = chunk.get(x, y, z);
-                        BlockEntry block = TranslatorsInit.getBlockTranslator().getBedrockBlock(blockState);
+        for (int chunkY = 0; chunkY < chunkSectionCount; chunkY++) {
+            for (int index : translated[chunkY].blockEntities) {
+                int x = index >> 8;
+                int y = index & 15;
+                int z = (index >> 4) & 15;
 
-                        section.getBlockStorageArray()[0].setFullBlock(ChunkSection.blockPosition(x, y, z),
-                                block.getBedrockId() << 4 | block.getBedrockData());
+                int blockX = (column.getX() << 4) + x;
+                int blockY = (chunkY << 4) + y;
+                int blockZ = (column.getZ() << 4) + z;
+                if (positions.contains(blockPosition(blockX, blockY, blockZ)))
+                    continue;
 
-                        if (block.getJavaIdentifier().contains("waterlogged=true")) {
-                            section.getBlockStorageArray()[1].setFullBlock(ChunkSection.blockPosition(x, y, z),
-                                    9 << 4); // water id
-                        }
+                String javaId = TranslatorsInit.getBlockTranslator().getBlockEntityId(chunks[chunkY].get(x, y, z));
+                com.nukkitx.nbt.tag.CompoundTag blockEntity = BlockEntityUtils.getDefaultTags(javaId, blockX, blockY, blockZ);
+                if (blockEntity != null) {
+                    chunkData.blockEntities.add(blockEntity);
+                }
+            }
+        }
+
+        return chunkData;
+    }
 
-                        //Signs are special
-                        if(block.getJavaIdentifier().contains("sign")) {
-                            CompoundTag tag = new CompoundTag("");
+    /**
+     * @param chunk the Java section, or null if it's missing
+     * @param cache the cache of translated sections, or null to translate every section
+     * @param encode if the section should be encoded even if it isn't cached
+     * @return the translated section
+     */
+    private static TranslatedSection translateSection(Chunk chunk, SectionCache cache, boolean encode) {
+        if (chunk == null || chunk.isEmpty())
+            return new TranslatedSection(new ChunkSection(), null, NO_BLOCK_ENTITIES);
 
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.StringTag("id", MINECRAFT + "sign"));
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.StringTag("Text1", "\"text\":\"\""));
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.StringTag("Text2", "\"text\":\"\""));
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.StringTag("Text3", "\"text\":\"\""));
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.StringTag("Text4", "\"text\":\"\""));
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.IntTag("x", x));
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.IntTag("y", y));
-                            tag.put(new com.github.steveice10.opennbt.tag.builtin.IntTag("z", z));
+        SectionCache.Key key = cache == null ? null : SectionCache.key(chunk);
+        SectionCache.Entry cached = key == null ? null : cache.get(key);
+        if (cached != null)
+            return new TranslatedSection(cached.getSection(), cached.getEncoded(), cached.getBlockEntities());
 
-                            tiles.add(tag);
+        ChunkSection section = new ChunkSection();
+        int[] blocks = new int[ChunkSection.SIZE];
+        int[] waterlogged = null;
+        TIntList blockEntities = new TIntArrayList();
+
+        for (int x = 0; x < 16; x++) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    BlockState blockState = chunk.get(x, y, z);
+                    BlockEntry block = TranslatorsInit.getBlockTranslator().getBedrockBlock(blockState);
+                    int index = ChunkSection.blockPosition(x, y, z);
+
+                    blocks[index] = block.getBedrockId() << 4 | block.getBedrockData();
+
+                    if (block.getJavaIdentifier().contains("waterlogged=true")) {
+                        if (waterlogged == null) {
+                            waterlogged = new int[ChunkSection.SIZE];
                         }
+                        waterlogged[index] = 9 << 4; // water id
+                    }
+
+                    if (TranslatorsInit.getBlockTranslator().getBlockEntityId(blockState) != null) {
+                        blockEntities.add(index);
                     }
                 }
             }
         }
 
-        //Start work on block entities
-        try {
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(stream);
-
-            for (CompoundTag tag : tiles) {
-                try {
-                    nbtStream.write(BlockEntityUtils.getExtraTags(tag));
-                } catch (Exception e) {
-                    //The close method of the streams doesn't do anything anyway
-                }
+        section.getBlockStorageArray()[0].setFullBlocks(blocks);
+        if (waterlogged != null) {
+            section.getBlockStorageArray()[1].setFullBlocks(waterlogged);
+        }
+
+        byte[] encoded = null;
+        if (key != null || encode) {
+            encoded = new byte[section.getNetworkSize()];
+            ByteBuf encodedBuf = Unpooled.wrappedBuffer(encoded);
+            encodedBuf.writerIndex(0);
+            section.writeToNetwork(encodedBuf);
+        }
+
+        int[] blockEntityPositions = blockEntities.isEmpty() ? NO_BLOCK_ENTITIES : blockEntities.toArray();
+        if (key != null) {
+            cache.put(key, section, encoded, blockEntityPositions);
+        }
+        return new TranslatedSection(section, encoded, blockEntityPositions);
+    }
+
+    private static long blockPosition(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+    }
+
+    /**
+     * Writes the translated column into an array sized exactly from the section palettes. The block
+     * entities are encoded straight into the payload, so it only has to be trimmed if there are any.
+     *
+     * @param chunkData the translated column
+     * @param sectionCount the amount of sections to write
+     * @return the LevelChunkPacket payload
+     */
+    public static byte[] serialize(ChunkData chunkData, int sectionCount) {
+        int size = chunkData.biomes.length + 2;
+        for (int i = 0; i < sectionCount; i++) {
+            byte[] encoded = chunkData.encodedSections[i];
+            size += encoded != null ? encoded.length : chunkData.sections[i].getNetworkSize();
+        }
+
+        ByteBuf byteBuf = Unpooled.buffer(size + chunkData.blockEntities.size() * BLOCK_ENTITY_SIZE_ESTIMATE);
+
+        for (int i = 0; i < sectionCount; i++) {
+            byte[] encoded = chunkData.encodedSections[i];
+            if (encoded != null) {
+                byteBuf.writeBytes(encoded);
+            } else {
+                chunkData.sections[i].writeToNetwork(byteBuf);
             }
+        }
 
-            chunkData.blockEntities = stream.toByteArray();
+        byteBuf.writeBytes(chunkData.biomes); // Biomes - 256 bytes
+        byteBuf.writeByte(0); // Border blocks - Edu edition only
+        VarInts.writeUnsignedInt(byteBuf, 0); // extra data length, 0 for now
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        try {
+            NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
+            for (com.nukkitx.nbt.tag.CompoundTag blockEntity : chunkData.blockEntities) {
+                nbtStream.write(blockEntity);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the block entities", ex);
         }
 
-        return chunkData;
+        // Without block entities the array is already the exact size
+        if (byteBuf.arrayOffset() == 0 && byteBuf.array().length == byteBuf.writerIndex())
+            return byteBuf.array();
+
+        return ByteBufUtil.getBytes(byteBuf, 0, byteBuf.writerIndex());
+    }
+
+    @AllArgsConstructor
+    private static final class TranslatedSection {
+        private final ChunkSection section;
+        private final byte[] encoded;
+        private final int[] blockEntities;
+    }
+
+    /**
+     * Splits the sections of a column until every task translates a single one
+     */
+    @AllArgsConstructor
+    private static final class SectionTask extends RecursiveAction {
+        private final Chunk[] chunks;
+        private final TranslatedSection[] translated;
+        private final SectionCache cache;
+        private final int from;
+        private final int to;
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                translated[from] = translateSection(chunks[from], cache, true);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new SectionTask(chunks, translated, cache, from, middle),
+                    new SectionTask(chunks, translated, cache, middle, to));
+        }
     }
 
     public static final class ChunkData {
         public ChunkSection[] sections;
+        /**
+         * The sections already encoded for the network, null for the ones that still have to be
+         */
+        public byte[][] encodedSections;
 
         public byte[] biomes = new byte[256];
-        public byte[] blockEntities = new byte[0];
+        public List<com.nukkitx.nbt.tag.CompoundTag> blockEntities = new ArrayList<>();
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Raw deflate helpers backed by one {@link Deflater} and {@link Inflater} per thread,
+ * so callers never pay for creating (and finalizing) zlib streams per call.
+ */
+public class CompressionUtils {
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    public static byte[] deflate(byte[] data, int level) {
+        return deflate(data, 0, data.length, level);
+    }
+
+    public static byte[] deflate(byte[] data, int offset, int length, int level) {
+        Deflater deflater = prepareDeflater(data, offset, length, level);
+        byte[] buffer = BUFFER.get();
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(Math.max(64, length / 2));
+        while (!deflater.finished()) {
+            int written = deflater.deflate(buffer);
+            stream.write(buffer, 0, written);
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * Compresses the data into the thread's scratch buffer and only counts the output,
+     * which is enough for statistics and avoids allocating the compressed result.
+     *
+     * @param data the data to compress
+     * @param level the deflate level to use
+     * @return the compressed size in bytes
+     */
+    public static int getCompressedSize(byte[] data, int level) {
+        Deflater deflater = prepareDeflater(data, 0, data.length, level);
+        byte[] buffer = BUFFER.get();
+
+        int size = 0;
+        while (!deflater.finished()) {
+            size += deflater.deflate(buffer);
+        }
+        return size;
+    }
+
+    public static byte[] inflate(byte[] data, int expectedLength) throws DataFormatException {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(data);
+
+        byte[] result = new byte[expectedLength];
+        int read = 0;
+        while (read < expectedLength && !inflater.finished()) {
+            int inflated = inflater.inflate(result, read, expectedLength - read);
+            if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                throw new DataFormatException("Truncated deflate stream");
+
+            read += inflated;
+        }
+        return result;
+    }
+
+    private static Deflater prepareDeflater(byte[] data, int offset, int length, int level) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        return deflater;
+    }
+}
@@ -8,22 +8,20 @@ import com.github.steveice10.mc.protocol.packet.ingame.server.window.ServerWindo
 import com.github.steveice10.packetlib.packet.Packet;
 import com.nukkitx.protocol.bedrock.data.ContainerId;
 import com.nukkitx.protocol.bedrock.data.ItemData;
+import com.nukkitx.protocol.bedrock.packet.ContainerClosePacket;
 import com.nukkitx.protocol.bedrock.packet.InventoryContentPacket;
-import org.geysermc.api.Geyser;
+import com.nukkitx.protocol.bedrock.packet.InventorySlotPacket;
 import org.geysermc.connector.inventory.Inventory;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.cache.InventoryCache;
 import org.geysermc.connector.network.translators.TranslatorsInit;
 import org.geysermc.connector.network.translators.inventory.InventoryTranslator;
 
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Objects;
 
 public class InventoryUtils {
 
     public static void refreshPlayerInventory(GeyserSession session, Inventory inventory) {
-        InventoryContentPacket inventoryContentPacket = new InventoryContentPacket();
-        inventoryContentPacket.setContainerId(ContainerId.INVENTORY);
-
         ItemData[] contents = new ItemData[40];
         // Inventory
         for (int i = 9; i < 36; i++) {
@@ -40,27 +38,168 @@ public class InventoryUtils {
             contents[i + 31] = TranslatorsInit.getItemTranslator().translateToBedrock(inventory.getItems()[i]);
         }
 
-        inventoryContentPacket.setContents(contents);
-        session.getUpstream().sendPacket(inventoryContentPacket);
+        sendChangedItems(session, ContainerId.INVENTORY, contents);
+    }
+
+    /**
+     * Sends the items of a container that changed since they were last sent. Every item is sent
+     * at once if the client wasn't sent the container yet or most items changed.
+     *
+     * @param session the session of the player
+     * @param containerId the Bedrock container id
+     * @param items the translated items of the container
+     */
+    public static void sendChangedItems(GeyserSession session, int containerId, ItemData[] items) {
+        InventoryCache inventoryCache = session.getInventoryCache();
+        ItemData[] sent = inventoryCache.getSentItems(containerId);
+
+        int changed = items.length;
+        if (sent != null && sent.length == items.length) {
+            changed = 0;
+            for (int i = 0; i < items.length; i++) {
+                if (!isSameItem(sent[i], items[i]))
+                    changed++;
+            }
+        }
+
+        if (changed == 0)
+            return;
+
+        if (changed > items.length / 2) {
+            InventoryContentPacket contentPacket = new InventoryContentPacket();
+            contentPacket.setContainerId(containerId);
+            contentPacket.setContents(items);
+            session.getUpstream().sendPacket(contentPacket);
+            inventoryCache.setSentItems(containerId, items.clone());
+            return;
+        }
+
+        for (int i = 0; i < items.length; i++) {
+            if (!isSameItem(sent[i], items[i])) {
+                sendSlot(session, containerId, i, items[i]);
+                sent[i] = items[i];
+            }
+        }
+    }
+
+    /**
+     * Sends an item of a container, unless the client already has it
+     *
+     * @param session the session of the player
+     * @param containerId the Bedrock container id
+     * @param slot the Bedrock slot
+     * @param item the translated item
+     */
+    public static void sendChangedItem(GeyserSession session, int containerId, int slot, ItemData item) {
+        ItemData[] sent = session.getInventoryCache().getSentItems(containerId);
+        if (sent != null && slot < sent.length) {
+            if (isSameItem(sent[slot], item))
+                return;
+
+            sent[slot] = item;
+        }
+        sendSlot(session, containerId, slot, item);
+    }
+
+    private static void sendSlot(GeyserSession session, int containerId, int slot, ItemData item) {
+        InventorySlotPacket slotPacket = new InventorySlotPacket();
+        slotPacket.setContainerId(containerId);
+        slotPacket.setInventorySlot(slot);
+        slotPacket.setSlot(item);
+        session.getUpstream().sendPacket(slotPacket);
+    }
+
+    private static boolean isSameItem(ItemData sent, ItemData item) {
+        if (sent == item)
+            return true;
+        if (sent == null || item == null)
+            return false;
+
+        return sent.getId() == item.getId() && sent.getDamage() == item.getDamage()
+                && sent.getCount() == item.getCount() && Objects.equals(sent.getTag(), item.getTag());
     }
 
     public static void openInventory(GeyserSession session, ServerOpenWindowPacket packet) {
+        InventoryCache inventoryCache = session.getInventoryCache();
+        // Opening a window closes the previous one without a close packet
+        Inventory previous = inventoryCache.getOpenInventory();
+        if (previous != null && previous.getId() != packet.getWindowId()) {
+            previous.setOpen(false);
+            inventoryCache.uncacheInventory(previous.getId());
+        }
+        inventoryCache.dropPendingPackets(packet.getWindowId());
+
         Inventory inventory = new Inventory(packet.getWindowId(), packet.getType(), 45); // TODO: Find a way to set this value
-        session.getInventoryCache().getInventories().put(packet.getWindowId(), inventory);
-        session.getInventoryCache().setOpenInventory(inventory);
+        inventoryCache.cacheInventory(inventory);
+        inventoryCache.setOpenInventory(inventory);
 
         InventoryTranslator translator = TranslatorsInit.getInventoryTranslator();
-        translator.prepareInventory(session, inventory);
-        Geyser.getGeneralThreadPool().schedule(() -> {
-            List<Packet> packets = session.getInventoryCache().getCachedPackets().get(inventory.getId());
-            packets.forEach(itemPacket -> {
-                if (itemPacket != null) {
-                    if (ServerWindowItemsPacket.class.isAssignableFrom(itemPacket.getClass())) {
-                        updateInventory(session, (ServerWindowItemsPacket) itemPacket);
-                    }
-                }
-            });
-        }, 200, TimeUnit.MILLISECONDS);
+        translator.prepareInventory(session, inventory, () -> onInventoryReady(session, inventory));
+    }
+
+    /**
+     * Opens the container once the client can show it, and sends the contents received while it was being prepared
+     */
+    private static void onInventoryReady(GeyserSession session, Inventory inventory) {
+        InventoryCache inventoryCache = session.getInventoryCache();
+        // Another window may have been opened in the meantime
+        if (inventoryCache.getOpenInventory() != inventory)
+            return;
+
+        // The client shows the container empty, so the items sent to a window with the same id don't count
+        inventoryCache.removeSentItems(inventory.getId());
+        TranslatorsInit.getInventoryTranslator().openInventory(session, inventory);
+        inventory.setOpen(true);
+
+        for (Packet packet : inventoryCache.takePendingPackets(inventory.getId())) {
+            if (packet instanceof ServerWindowItemsPacket) {
+                updateInventory(session, (ServerWindowItemsPacket) packet);
+            } else if (packet instanceof ServerSetSlotPacket) {
+                updateSlot(session, (ServerSetSlotPacket) packet);
+            }
+        }
+    }
+
+    /**
+     * Forgets the open window after the client closed it
+     *
+     * @param session the session of the player
+     * @param windowId the id of the window
+     */
+    public static void closeInventory(GeyserSession session, int windowId) {
+        InventoryCache inventoryCache = session.getInventoryCache();
+        Inventory openInventory = inventoryCache.getOpenInventory();
+        if (windowId == 0 || openInventory == null || openInventory.getId() != windowId)
+            return;
+
+        openInventory.setOpen(false);
+        inventoryCache.setOpenInventory(null);
+        inventoryCache.uncacheInventory(windowId);
+        session.getDownstream().getSession().send(new ClientCloseWindowPacket(windowId));
+    }
+
+    /**
+     * Forgets a window the server closed, and closes it for the client if it was shown
+     *
+     * @param session the session of the player
+     * @param windowId the id of the window
+     */
+    public static void serverCloseInventory(GeyserSession session, int windowId) {
+        if (windowId == 0)
+            return;
+
+        InventoryCache inventoryCache = session.getInventoryCache();
+        Inventory openInventory = inventoryCache.getOpenInventory();
+        if (openInventory != null && openInventory.getId() == windowId) {
+            if (openInventory.isOpen()) {
+                ContainerClosePacket closePacket = new ContainerClosePacket();
+                closePacket.setWindowId((byte) windowId);
+                session.getUpstream().sendPacket(closePacket);
+            }
+            openInventory.setOpen(false);
+            inventoryCache.setOpenInventory(null);
+        }
+        inventoryCache.uncacheInventory(windowId);
     }
 
     public static void updateInventory(GeyserSession session, ServerWindowItemsPacket packet) {
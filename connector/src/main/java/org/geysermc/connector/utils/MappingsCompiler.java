@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nukkitx.network.VarInts;
+import com.nukkitx.protocol.bedrock.v361.BedrockUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Compiles the JSON mappings into the binary table read by {@link Toolbox}.
+ *
+ * This is run during the build, so the server doesn't have to parse the JSON files on startup.
+ * Everything is written as VarInts and VarInt prefixed strings:
+ * <pre>
+ * magic, version
+ * palette: count, (id, data)*, image length, image
+ * start game items: count, (name, id)*
+ * java items: count, (java identifier, bedrock id, bedrock data)*
+ * java blocks: count, (java identifier, bedrock id, bedrock data)*
+ * </pre>
+ */
+public class MappingsCompiler {
+    public static final String RESOURCE = "mappings.bin";
+    public static final int MAGIC = 0x474D4150; // GMAP
+    public static final int VERSION = 1;
+
+    /**
+     * The block used for every java block that doesn't exist on bedrock edition
+     */
+    public static final int UNMAPPED_BLOCK_ID = 248;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: MappingsCompiler <output directory>");
+        }
+
+        ByteBuf compiled = compile();
+        try {
+            File output = new File(args[0], RESOURCE);
+            try (OutputStream stream = new FileOutputStream(output)) {
+                compiled.readBytes(stream, compiled.readableBytes());
+            }
+            System.out.println("Compiled mappings to " + output + " (" + output.length() + " bytes)");
+        } finally {
+            compiled.release();
+        }
+    }
+
+    /**
+     * Reads the JSON mappings from the classpath and compiles them
+     *
+     * @return the compiled mappings
+     * @throws IOException if a mapping file can't be read
+     */
+    public static ByteBuf compile() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ByteBuf out = Unpooled.buffer();
+        out.writeInt(MAGIC);
+        VarInts.writeUnsignedInt(out, VERSION);
+
+        JsonNode palette = readTree(mapper, "bedrock/cached_palette.json");
+        Map<String, Integer> blockIdToIdentifier = new HashMap<>();
+        ByteBuf image = Unpooled.buffer();
+        try {
+            VarInts.writeUnsignedInt(out, palette.size());
+            VarInts.writeUnsignedInt(image, palette.size());
+            for (JsonNode entry : palette) {
+                String name = entry.get("name").asText();
+                int id = entry.get("id").asInt();
+                int data = entry.get("data").asInt();
+                blockIdToIdentifier.put(name, id);
+
+                VarInts.writeUnsignedInt(out, id);
+                VarInts.writeUnsignedInt(out, data);
+
+                BedrockUtils.writeString(image, name);
+                image.writeShortLE(data);
+                image.writeShortLE(id);
+            }
+
+            VarInts.writeUnsignedInt(out, image.readableBytes());
+            out.writeBytes(image);
+        } finally {
+            image.release();
+        }
+
+        JsonNode startGameItems = readTree(mapper, "bedrock/items.json");
+        VarInts.writeUnsignedInt(out, startGameItems.size());
+        for (JsonNode entry : startGameItems) {
+            BedrockUtils.writeString(out, entry.get("name").asText());
+            VarInts.writeInt(out, entry.get("id").asInt());
+        }
+
+        JsonNode items = readTree(mapper, "items.json");
+        VarInts.writeUnsignedInt(out, items.size());
+        Iterator<Map.Entry<String, JsonNode>> itemIterator = items.fields();
+        while (itemIterator.hasNext()) {
+            Map.Entry<String, JsonNode> entry = itemIterator.next();
+            BedrockUtils.writeString(out, entry.getKey());
+            VarInts.writeInt(out, entry.getValue().get("bedrock_id").asInt());
+            VarInts.writeUnsignedInt(out, entry.getValue().get("bedrock_data").asInt());
+        }
+
+        JsonNode blocks = readTree(mapper, "blocks.json");
+        VarInts.writeUnsignedInt(out, blocks.size());
+        Iterator<Map.Entry<String, JsonNode>> blockIterator = blocks.fields();
+        while (blockIterator.hasNext()) {
+            Map.Entry<String, JsonNode> entry = blockIterator.next();
+            Integer bedrockId = blockIdToIdentifier.get(entry.getValue().get("bedrock_identifier").asText());
+
+            BedrockUtils.writeString(out, entry.getKey());
+            if (bedrockId == null) {
+                VarInts.writeUnsignedInt(out, UNMAPPED_BLOCK_ID); // update block
+                VarInts.writeUnsignedInt(out, 0);
+            } else {
+                VarInts.writeUnsignedInt(out, bedrockId);
+                VarInts.writeUnsignedInt(out, entry.getValue().get("bedrock_data").asInt());
+            }
+        }
+
+        return out;
+    }
+
+    private static JsonNode readTree(ObjectMapper mapper, String resource) throws IOException {
+        try (InputStream stream = MappingsCompiler.class.getClassLoader().getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IOException("Mapping file " + resource + " not found");
+            }
+            return mapper.readTree(stream);
+        }
+    }
+}
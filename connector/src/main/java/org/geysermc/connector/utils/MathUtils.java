@@ -6,4 +6,23 @@ public class MathUtils {
         int truncated = (int) floatNumber;
         return floatNumber > truncated ? truncated + 1 : truncated;
     }
+
+    /**
+     * Gets the amount of bytes needed to write the given value as a zigzag encoded VarInt
+     *
+     * @param value the value to be written
+     * @return the size in bytes
+     */
+    public static int getVarIntSize(int value) {
+        return getUnsignedVarIntSize((value << 1) ^ (value >> 31));
+    }
+
+    public static int getUnsignedVarIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allows a fixed amount of actions per key in every interval
+ *
+ * @param <K> the type of the key, usually an address
+ */
+public class RateLimiter<K> {
+    private final int permits;
+    private final long interval;
+
+    private final Map<K, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param permits the amount of actions allowed per interval, 0 or less to allow everything
+     * @param interval the length of the interval
+     * @param unit the unit of the interval
+     */
+    public RateLimiter(int permits, long interval, TimeUnit unit) {
+        this.permits = permits;
+        this.interval = unit.toNanos(interval);
+    }
+
+    /**
+     * @param key the key to count the action for
+     * @return true if the action is allowed
+     */
+    public boolean tryAcquire(K key) {
+        if (permits <= 0)
+            return true;
+
+        long now = System.nanoTime();
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        synchronized (window) {
+            if (now - window.start >= interval) {
+                window.start = now;
+                window.count = 0;
+            }
+            return ++window.count <= permits;
+        }
+    }
+
+    /**
+     * Forgets every key whose interval has passed, should be called regularly
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        windows.values().removeIf(window -> now - window.start >= interval);
+    }
+
+    private static class Window {
+        private long start;
+        private int count;
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
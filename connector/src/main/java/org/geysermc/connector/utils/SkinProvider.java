@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.geysermc.api.Geyser;
 import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.shared.SharedState;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
@@ -138,7 +139,7 @@ public class SkinProvider {
     private static Skin supplySkin(UUID uuid, String textureUrl) {
         byte[] skin = EMPTY_SKIN.getSkinData();
         try {
-            skin = requestImage(textureUrl, false);
+            skin = requestSharedImage(textureUrl, false);
         } catch (Exception ignored) {} // just ignore I guess
         return new Skin(uuid, textureUrl, skin, System.currentTimeMillis(), false);
     }
@@ -146,7 +147,7 @@ public class SkinProvider {
     private static Cape supplyCape(String capeUrl) {
         byte[] cape = new byte[0];
         try {
-            cape = requestImage(capeUrl, true);
+            cape = requestSharedImage(capeUrl, true);
         } catch (Exception ignored) {} // just ignore I guess
 
         return new Cape(
@@ -157,6 +158,27 @@ public class SkinProvider {
         );
     }
 
+    /**
+     * Downloaded images are shared with other Geyser processes, so each one is only downloaded once.
+     * Without other processes the cached skins and capes already hold them.
+     */
+    private static byte[] requestSharedImage(String imageUrl, boolean cape) throws Exception {
+        SharedState sharedState = ((GeyserConnector) Geyser.getConnector()).getSharedState();
+        if (!sharedState.isShared())
+            return requestImage(imageUrl, cape);
+
+        String namespace = cape ? "capes" : "skins";
+        byte[] image = sharedState.get(namespace, imageUrl);
+        if (image != null) {
+            Geyser.getLogger().debug("Loaded " + imageUrl + " from the shared state");
+            return image;
+        }
+
+        image = requestImage(imageUrl, cape);
+        sharedState.put(namespace, imageUrl, image, CACHE_INTERVAL);
+        return image;
+    }
+
     private static byte[] requestImage(String imageUrl, boolean cape) throws Exception {
         BufferedImage image = ImageIO.read(new URL(imageUrl));
         Geyser.getLogger().debug("Downloaded " + imageUrl);
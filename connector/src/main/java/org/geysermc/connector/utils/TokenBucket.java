@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+/**
+ * Allows actions at a steady rate, with bursts up to the size of the bucket
+ */
+public class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * @param perSecond the amount of actions allowed per second, 0 or less to allow everything
+     * @param burst the amount of actions that can be taken at once after being idle
+     */
+    public TokenBucket(double perSecond, int burst) {
+        this.tokensPerNano = perSecond / 1_000_000_000D;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+    }
+
+    /**
+     * @return true if the action is allowed
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}
+     * @return true if the action is allowed
+     */
+    synchronized boolean tryAcquire(long now) {
+        if (tokensPerNano <= 0)
+            return true;
+
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        if (tokens < 1)
+            return false;
+
+        tokens--;
+        return true;
+    }
+}
@@ -1,6 +1,5 @@
 package org.geysermc.connector.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nukkitx.network.VarInts;
 import com.nukkitx.protocol.bedrock.packet.StartGamePacket;
 import com.nukkitx.protocol.bedrock.v361.BedrockUtils;
@@ -13,6 +12,8 @@ import org.geysermc.connector.network.translators.block.BlockEntry;
 import org.geysermc.connector.network.translators.item.ItemEntry;
 import org.geysermc.connector.world.GlobalBlockPalette;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 
@@ -25,96 +26,73 @@ public class Toolbox {
     public static final TIntObjectMap<BlockEntry> BLOCK_ENTRIES;
 
     static {
-        InputStream stream = Toolbox.class.getClassLoader().getResourceAsStream("bedrock/cached_palette.json");
-        ObjectMapper mapper = new ObjectMapper();
-        List<LinkedHashMap<String, Object>> entries = new ArrayList<>();
-
-        try {
-            entries = mapper.readValue(stream, ArrayList.class);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        ByteBuf cachedPalette = Unpooled.buffer();
-        VarInts.writeUnsignedInt(cachedPalette, entries.size());
-
-        Map<String, Integer> blockIdToIdentifier = new HashMap<>();
-
-        for (Map<String, Object> entry : entries) {
-            blockIdToIdentifier.put((String) entry.get("name"), (int) entry.get("id"));
+        long start = System.nanoTime();
+        ByteBuf mappings = loadMappings();
 
-            GlobalBlockPalette.registerMapping((int) entry.get("id") << 4 | (int) entry.get("data"));
-            BedrockUtils.writeString(cachedPalette, (String) entry.get("name"));
-            cachedPalette.writeShortLE((int) entry.get("data"));
-            cachedPalette.writeShortLE((int) entry.get("id"));
+        if (mappings.readInt() != MappingsCompiler.MAGIC || VarInts.readUnsignedInt(mappings) != MappingsCompiler.VERSION) {
+            throw new AssertionError("Invalid or outdated " + MappingsCompiler.RESOURCE);
         }
 
-        CACHED_PALLETE = cachedPalette;
-
-        InputStream stream2 = Toolbox.class.getClassLoader().getResourceAsStream("bedrock/items.json");
-        if (stream2 == null) {
-            throw new AssertionError("Items Table not found");
+        int paletteSize = (int) VarInts.readUnsignedInt(mappings);
+        for (int i = 0; i < paletteSize; i++) {
+            int id = (int) VarInts.readUnsignedInt(mappings);
+            int data = (int) VarInts.readUnsignedInt(mappings);
+            GlobalBlockPalette.registerMapping(id << 4 | data);
         }
 
-        ObjectMapper startGameItemMapper = new ObjectMapper();
-        List<Map> startGameItems = new ArrayList<>();
-        try {
-            startGameItems = startGameItemMapper.readValue(stream2, ArrayList.class);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        int paletteLength = (int) VarInts.readUnsignedInt(mappings);
+        CACHED_PALLETE = mappings.readBytes(paletteLength);
 
-        List<StartGamePacket.ItemEntry> startGameEntries = new ArrayList<>();
-        for (Map entry : startGameItems) {
-            startGameEntries.add(new StartGamePacket.ItemEntry((String) entry.get("name"), (short) ((int) entry.get("id"))));
+        int startGameItemCount = (int) VarInts.readUnsignedInt(mappings);
+        List<StartGamePacket.ItemEntry> startGameEntries = new ArrayList<>(startGameItemCount);
+        for (int i = 0; i < startGameItemCount; i++) {
+            startGameEntries.add(new StartGamePacket.ItemEntry(BedrockUtils.readString(mappings), (short) VarInts.readInt(mappings)));
         }
 
         ITEMS = startGameEntries;
 
-        InputStream itemStream = Toolbox.class.getClassLoader().getResourceAsStream("items.json");
-        ObjectMapper itemMapper = new ObjectMapper();
-        Map<String, Map<String, Object>> items = new HashMap<>();
-
-        try {
-            items = itemMapper.readValue(itemStream, LinkedHashMap.class);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-
-        TIntObjectMap<ItemEntry> itemEntries = new TIntObjectHashMap<>();
-        int itemIndex = 0;
-
-        for (Map.Entry<String, Map<String, Object>> itemEntry : items.entrySet()) {
-            itemEntries.put(itemIndex, new ItemEntry(itemEntry.getKey(), itemIndex, (int) itemEntry.getValue().get("bedrock_id"), (int) itemEntry.getValue().get("bedrock_data")));
-            itemIndex++;
+        int itemCount = (int) VarInts.readUnsignedInt(mappings);
+        TIntObjectMap<ItemEntry> itemEntries = new TIntObjectHashMap<>(itemCount);
+        for (int itemIndex = 0; itemIndex < itemCount; itemIndex++) {
+            String javaIdentifier = BedrockUtils.readString(mappings);
+            itemEntries.put(itemIndex, new ItemEntry(javaIdentifier, itemIndex, VarInts.readInt(mappings), (int) VarInts.readUnsignedInt(mappings)));
         }
 
         ITEM_ENTRIES = itemEntries;
 
-        InputStream blockStream = Toolbox.class.getClassLoader().getResourceAsStream("blocks.json");
-        ObjectMapper blockMapper = new ObjectMapper();
-        Map<String, Map<String, Object>> blocks = new HashMap<>();
-
-        try {
-            blocks = blockMapper.readValue(blockStream, LinkedHashMap.class);
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        int blockCount = (int) VarInts.readUnsignedInt(mappings);
+        TIntObjectMap<BlockEntry> blockEntries = new TIntObjectHashMap<>(blockCount);
+        for (int blockIndex = 0; blockIndex < blockCount; blockIndex++) {
+            String javaIdentifier = BedrockUtils.readString(mappings);
+            blockEntries.put(blockIndex, new BlockEntry(javaIdentifier, blockIndex, (int) VarInts.readUnsignedInt(mappings), (int) VarInts.readUnsignedInt(mappings)));
         }
 
-        TIntObjectMap<BlockEntry> blockEntries = new TIntObjectHashMap<>();
-        int blockIndex = 0;
+        BLOCK_ENTRIES = blockEntries;
+        mappings.release();
+
+        GeyserLogger.DEFAULT.debug(() -> "Loaded mappings in " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
 
-        for (Map.Entry<String, Map<String, Object>> itemEntry : blocks.entrySet()) {
-            if (!blockIdToIdentifier.containsKey(itemEntry.getValue().get("bedrock_identifier"))) {
-                GeyserLogger.DEFAULT.debug("Mapping " + itemEntry.getValue().get("bedrock_identifier") + " does not exist on bedrock edition!");
-                blockEntries.put(blockIndex, new BlockEntry(itemEntry.getKey(), blockIndex, 248, 0)); // update block
-            } else {
-                blockEntries.put(blockIndex, new BlockEntry(itemEntry.getKey(), blockIndex, blockIdToIdentifier.get(itemEntry.getValue().get("bedrock_identifier")), (int) itemEntry.getValue().get("bedrock_data")));
+    /**
+     * Reads the mappings compiled during the build, or compiles them from the JSON files
+     * if they're missing, which is the case when running from an IDE without the build step.
+     */
+    private static ByteBuf loadMappings() {
+        try (InputStream stream = Toolbox.class.getClassLoader().getResourceAsStream(MappingsCompiler.RESOURCE)) {
+            if (stream != null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(stream.available(), 8192));
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+                return Unpooled.wrappedBuffer(bytes.toByteArray());
             }
 
-            blockIndex++;
+            GeyserLogger.DEFAULT.debug(MappingsCompiler.RESOURCE + " not found, compiling the mappings from JSON");
+            return MappingsCompiler.compile();
+        } catch (IOException ex) {
+            throw new AssertionError("Unable to load the mappings", ex);
         }
-
-        BLOCK_ENTRIES = blockEntries;
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,34 @@
 package org.geysermc.connector.world.chunk;
 
 import com.nukkitx.network.VarInts;
+import com.nukkitx.network.util.Preconditions;
 import gnu.trove.list.array.TIntArrayList;
 import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import org.geysermc.connector.utils.MathUtils;
 import org.geysermc.connector.world.GlobalBlockPalette;
 import org.geysermc.connector.world.chunk.bitarray.BitArray;
 import org.geysermc.connector.world.chunk.bitarray.BitArrayVersion;
 
 /**
  * Adapted from NukkitX: https://github.com/NukkitX/Nukkit
+ *
+ * A storage isn't thread safe, it is filled by the thread translating its chunk and only read afterwards.
  */
 public class BlockStorage {
 
     private static final int SIZE = 4096;
+    /**
+     * Palettes up to this size are searched directly, larger ones are indexed
+     */
+    private static final int PALETTE_INDEX_THRESHOLD = 8;
 
     private final TIntArrayList palette;
+    /**
+     * Maps every runtime id in the palette to its index, null until the palette outgrows {@link #PALETTE_INDEX_THRESHOLD}
+     */
+    private Int2IntMap paletteIndex;
     private BitArray bitArray;
 
     public BlockStorage() {
@@ -29,6 +43,9 @@ public class BlockStorage {
 
     private BlockStorage(BitArray bitArray, TIntArrayList palette) {
         this.palette = palette;
+        if (palette.size() > PALETTE_INDEX_THRESHOLD) {
+            this.indexPalette();
+        }
         this.bitArray = bitArray;
     }
 
@@ -40,16 +57,53 @@ public class BlockStorage {
         return BitArrayVersion.get(header >> 1, true);
     }
 
-    public synchronized int getFullBlock(int index) {
+    public int getFullBlock(int index) {
         return this.legacyIdFor(this.bitArray.get(index));
     }
 
-    public synchronized void setFullBlock(int index, int legacyId) {
+    public void setFullBlock(int index, int legacyId) {
         int idx = this.idFor(legacyId);
         this.bitArray.set(index, idx);
     }
 
-    public synchronized void writeToNetwork(ByteBuf buffer) {
+    /**
+     * Replaces every block of this storage at once, the palette is resized at most once.
+     *
+     * @param legacyIds the legacy id of every block, indexed by {@link ChunkSection#blockPosition(int, int, int)}
+     */
+    public void setFullBlocks(int[] legacyIds) {
+        Preconditions.checkArgument(legacyIds.length == SIZE, "Expected %s blocks", SIZE);
+
+        int[] indices = new int[SIZE];
+        int lastLegacyId = -1;
+        int lastIndex = -1;
+        boolean uniform = true;
+        for (int i = 0; i < SIZE; i++) {
+            int legacyId = legacyIds[i];
+            if (legacyId != lastLegacyId) {
+                lastIndex = this.indexFor(legacyId);
+                lastLegacyId = legacyId;
+                uniform &= i == 0;
+            }
+            indices[i] = lastIndex;
+        }
+
+        BitArrayVersion version = this.bitArray.getVersion();
+        while (this.palette.size() - 1 > version.getMaxEntryValue() && version.next() != null) {
+            version = version.next();
+        }
+        if (version != this.bitArray.getVersion()) {
+            this.bitArray = version.createPalette(SIZE);
+        }
+
+        if (uniform) {
+            this.bitArray.fill(indices[0]);
+        } else {
+            this.bitArray.setAll(indices);
+        }
+    }
+
+    public void writeToNetwork(ByteBuf buffer) {
         buffer.writeByte(getPaletteHeader(bitArray.getVersion(), true));
 
         for (int word : bitArray.getWords()) {
@@ -63,24 +117,27 @@ public class BlockStorage {
         });
     }
 
-    private void onResize(BitArrayVersion version) {
-        BitArray newBitArray = version.createPalette(SIZE);
-
-        for (int i = 0; i < SIZE; i++) {
-            newBitArray.set(i, this.bitArray.get(i));
+    /**
+     * @return the amount of bytes {@link #writeToNetwork(ByteBuf)} will write
+     */
+    public int getNetworkSize() {
+        int size = 1 + bitArray.getWords().length * 4 + MathUtils.getVarIntSize(palette.size());
+        for (int i = 0; i < palette.size(); i++) {
+            size += MathUtils.getVarIntSize(palette.get(i));
         }
-        this.bitArray = newBitArray;
+        return size;
+    }
+
+    private void onResize(BitArrayVersion version) {
+        this.bitArray = this.bitArray.repack(version);
     }
 
     private int idFor(int legacyId) {
-        int runtimeId = GlobalBlockPalette.getOrCreateRuntimeId(legacyId);
-        int index = this.palette.indexOf(runtimeId);
-        if (index != -1) {
+        int index = this.indexFor(legacyId);
+        if (index != this.palette.size() - 1) {
             return index;
         }
 
-        index = this.palette.size();
-        this.palette.add(runtimeId);
         BitArrayVersion version = this.bitArray.getVersion();
         if (index > version.getMaxEntryValue()) {
             BitArrayVersion next = version.next();
@@ -91,6 +148,34 @@ public class BlockStorage {
         return index;
     }
 
+    /**
+     * @return the palette index of the block, which is added to the palette without resizing if it's missing
+     */
+    private int indexFor(int legacyId) {
+        int runtimeId = GlobalBlockPalette.getOrCreateRuntimeId(legacyId);
+        int index = this.paletteIndex != null ? this.paletteIndex.get(runtimeId) : this.palette.indexOf(runtimeId);
+        if (index != -1) {
+            return index;
+        }
+
+        index = this.palette.size();
+        this.palette.add(runtimeId);
+        if (this.paletteIndex != null) {
+            this.paletteIndex.put(runtimeId, index);
+        } else if (this.palette.size() > PALETTE_INDEX_THRESHOLD) {
+            this.indexPalette();
+        }
+        return index;
+    }
+
+    private void indexPalette() {
+        this.paletteIndex = new Int2IntOpenHashMap(this.palette.size() * 2);
+        this.paletteIndex.defaultReturnValue(-1);
+        for (int i = 0; i < this.palette.size(); i++) {
+            this.paletteIndex.put(this.palette.get(i), i);
+        }
+    }
+
     private int legacyIdFor(int index) {
         int runtimeId = this.palette.get(index);
         return GlobalBlockPalette.getLegacyId(runtimeId);
@@ -13,16 +13,18 @@ public class ChunkSection {
     public static final int SIZE = 4096;
 
     private final BlockStorage[] storage;
-    private final NibbleArray blockLight;
-    private final NibbleArray skyLight;
+
+    // Light is not part of the sub chunk network format, so it is only allocated once used
+    private NibbleArray blockLight;
+    private NibbleArray skyLight;
+    private final Object lightLock = new Object();
 
     public ChunkSection() {
-        this(new BlockStorage[]{new BlockStorage(), new BlockStorage()}, new NibbleArray(SIZE),
-                new NibbleArray(SIZE));
+        this(new BlockStorage[]{new BlockStorage(), new BlockStorage()});
     }
 
     public ChunkSection(BlockStorage[] blockStorage) {
-        this(blockStorage, new NibbleArray(SIZE), new NibbleArray(SIZE));
+        this(blockStorage, (NibbleArray) null, null);
     }
 
     public ChunkSection(BlockStorage[] storage, byte[] blockLight, byte[] skyLight) {
@@ -55,28 +57,28 @@ public class ChunkSection {
         this.storage[layer].setFullBlock(blockPosition(x, y, z), fullBlock);
     }
 
-    @Synchronized("skyLight")
+    @Synchronized("lightLock")
     public byte getSkyLight(int x, int y, int z) {
         checkBounds(x, y, z);
-        return this.skyLight.get(blockPosition(x, y, z));
+        return this.skyLight == null ? 0 : this.skyLight.get(blockPosition(x, y, z));
     }
 
-    @Synchronized("skyLight")
+    @Synchronized("lightLock")
     public void setSkyLight(int x, int y, int z, byte val) {
         checkBounds(x, y, z);
-        this.skyLight.set(blockPosition(x, y, z), val);
+        getSkyLightArray().set(blockPosition(x, y, z), val);
     }
 
-    @Synchronized("blockLight")
+    @Synchronized("lightLock")
     public byte getBlockLight(int x, int y, int z) {
         checkBounds(x, y, z);
-        return this.blockLight.get(blockPosition(x, y, z));
+        return this.blockLight == null ? 0 : this.blockLight.get(blockPosition(x, y, z));
     }
 
-    @Synchronized("blockLight")
+    @Synchronized("lightLock")
     public void setBlockLight(int x, int y, int z, byte val) {
         checkBounds(x, y, z);
-        this.blockLight.set(blockPosition(x, y, z), val);
+        getBlockLightArray().set(blockPosition(x, y, z), val);
     }
 
     public void writeToNetwork(ByteBuf buffer) {
@@ -87,11 +89,27 @@ public class ChunkSection {
         }
     }
 
+    public int getNetworkSize() {
+        int size = 2;
+        for (BlockStorage blockStorage : this.storage) {
+            size += blockStorage.getNetworkSize();
+        }
+        return size;
+    }
+
+    @Synchronized("lightLock")
     public NibbleArray getSkyLightArray() {
+        if (skyLight == null) {
+            skyLight = new NibbleArray(SIZE);
+        }
         return skyLight;
     }
 
+    @Synchronized("lightLock")
     public NibbleArray getBlockLightArray() {
+        if (blockLight == null) {
+            blockLight = new NibbleArray(SIZE);
+        }
         return blockLight;
     }
 
@@ -113,7 +131,9 @@ public class ChunkSection {
         for (int i = 0; i < storage.length; i++) {
             storage[i] = this.storage[i].copy();
         }
-        return new ChunkSection(storage, skyLight.copy(), blockLight.copy());
+        synchronized (lightLock) {
+            return new ChunkSection(storage, blockLight == null ? null : blockLight.copy(), skyLight == null ? null : skyLight.copy());
+        }
     }
 
     public static int blockPosition(int x, int y, int z) {
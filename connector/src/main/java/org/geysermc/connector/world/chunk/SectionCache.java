@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.world.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.world.block.BlockState;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers translated chunk sections by the content of the Java section, shared by every session.
+ *
+ * Oceans, stone and flat worlds repeat the same sections over and over, so those are only translated
+ * and encoded once. Entries are found by a hash of the palette and storage of the section, and the
+ * full content is compared on every hit so a hash collision never returns the wrong section.
+ * Once full, the oldest entries are evicted first.
+ */
+public class SectionCache {
+
+    private final int maxSections;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Long> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SectionCache(int maxSections) {
+        this.maxSections = Math.max(1, maxSections);
+    }
+
+    /**
+     * Creates the key of a Java section, which is only valid as long as the section isn't changed
+     *
+     * @param chunk the Java section
+     * @return the key of the section
+     */
+    public static Key key(Chunk chunk) {
+        List<BlockState> states = chunk.getStates();
+        int[] stateIds = new int[states.size()];
+        long hash = states.size();
+        for (int i = 0; i < stateIds.length; i++) {
+            stateIds[i] = states.get(i).getId();
+            hash = mix(hash, stateIds[i]);
+        }
+
+        long[] data = chunk.getStorage().getData();
+        for (long word : data) {
+            hash = mix(hash, word);
+        }
+
+        return new Key(finish(hash), stateIds, data);
+    }
+
+    /**
+     * @param key the key of the Java section
+     * @return the cached section, or null if it wasn't translated before
+     */
+    public Entry get(Key key) {
+        Entry entry = entries.get(key.hash);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (!Arrays.equals(entry.stateIds, key.stateIds) || !Arrays.equals(entry.data, key.data)) {
+            collisions.increment();
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Caches a translated section. Neither the section nor the encoded bytes may be changed afterwards.
+     *
+     * @param key the key of the Java section
+     * @param section the translated section
+     * @param encoded the section as written by {@link ChunkSection#writeToNetwork(io.netty.buffer.ByteBuf)}
+     * @param blockEntities the block positions of the blocks in the section that need a block entity
+     */
+    public void put(Key key, ChunkSection section, byte[] encoded, int[] blockEntities) {
+        Entry entry = new Entry(key.stateIds, Arrays.copyOf(key.data, key.data.length), section, encoded, blockEntities);
+        // The first section with a hash stays, so a collision doesn't evict a section that is in use
+        if (entries.putIfAbsent(key.hash, entry) != null)
+            return;
+
+        insertionOrder.add(key.hash);
+        while (entries.size() > maxSections) {
+            Long oldest = insertionOrder.poll();
+            if (oldest == null)
+                break;
+
+            entries.remove(oldest);
+            evictions.increment();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that were hits, or 0 if there were none
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+    }
+
+    private static long finish(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Key {
+        private final long hash;
+        private final int[] stateIds;
+        private final long[] data;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Entry {
+        @Getter(AccessLevel.NONE)
+        private final int[] stateIds;
+        @Getter(AccessLevel.NONE)
+        private final long[] data;
+
+        private final ChunkSection section;
+        private final byte[] encoded;
+        private final int[] blockEntities;
+    }
+}
@@ -9,6 +9,28 @@ public interface BitArray {
 
     int get(int index);
 
+    /**
+     * Replaces every entry, without checking whether the values fit this version
+     *
+     * @param values the new entries, one for every index
+     */
+    void setAll(int[] values);
+
+    /**
+     * Sets every entry to the given value
+     *
+     * @param value the value to set
+     */
+    void fill(int value);
+
+    /**
+     * Copies every entry into a new array of the given version
+     *
+     * @param version the version of the new array, which must be able to hold every entry
+     * @return the new array
+     */
+    BitArray repack(BitArrayVersion version);
+
     int size();
 
     int[] getWords();
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.world.chunk.bitarray;
+
+/**
+ * Word at a time operations shared by both bit array layouts. Entries are packed from the lowest
+ * bit of every word, padded arrays only differ by leaving the highest bits of a word unused.
+ *
+ * None of these check their arguments, values are expected to fit the version.
+ */
+final class BitArrays {
+
+    private BitArrays() {
+    }
+
+    static void setAll(int[] words, BitArrayVersion version, int size, int[] values) {
+        int bits = version.bits;
+        int entriesPerWord = version.entriesPerWord;
+        int mask = version.maxEntryValue;
+
+        int index = 0;
+        for (int i = 0; i < words.length; i++) {
+            int word = 0;
+            for (int offset = 0; offset < entriesPerWord && index < size; offset++, index++) {
+                word |= (values[index] & mask) << (offset * bits);
+            }
+            words[i] = word;
+        }
+    }
+
+    static void fill(int[] words, BitArrayVersion version, int size, int value) {
+        int bits = version.bits;
+        int entriesPerWord = version.entriesPerWord;
+
+        int pattern = 0;
+        for (int offset = 0; offset < entriesPerWord; offset++) {
+            pattern |= (value & version.maxEntryValue) << (offset * bits);
+        }
+
+        for (int i = 0; i < words.length; i++) {
+            words[i] = pattern;
+        }
+
+        // Entries after the end of the array are left empty
+        int remaining = size % entriesPerWord;
+        if (remaining != 0) {
+            words[words.length - 1] = pattern & ((1 << (remaining * bits)) - 1);
+        }
+    }
+
+    static BitArray repack(BitArray from, BitArrayVersion version) {
+        BitArrayVersion fromVersion = from.getVersion();
+        int size = from.size();
+        int[] fromWords = from.getWords();
+
+        BitArray to = version.createPalette(size);
+        int[] toWords = to.getWords();
+
+        int index = 0;
+        for (int fromWord : fromWords) {
+            for (int offset = 0; offset < fromVersion.entriesPerWord && index < size; offset++, index++) {
+                int value = (fromWord >>> (offset * fromVersion.bits)) & fromVersion.maxEntryValue;
+                if (value != 0) {
+                    toWords[index / version.entriesPerWord] |= (value & version.maxEntryValue) << ((index % version.entriesPerWord) * version.bits);
+                }
+            }
+        }
+        return to;
+    }
+}
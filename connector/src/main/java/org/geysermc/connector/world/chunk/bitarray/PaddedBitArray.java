@@ -39,7 +39,9 @@ public class PaddedBitArray implements BitArray {
     @Override
     public void set(int index, int value) {
         Preconditions.checkElementIndex(index, this.size);
-        Preconditions.checkArgument(value >= 0 && value <= this.version.maxEntryValue, "Invalid value");
+        if (value < 0 || value > this.version.maxEntryValue) {
+            throw new IllegalArgumentException("Invalid value " + value);
+        }
         int arrayIndex = index / this.version.entriesPerWord;
         int offset = (index % this.version.entriesPerWord) * this.version.bits;
 
@@ -70,6 +72,27 @@ public class PaddedBitArray implements BitArray {
         return this.version;
     }
 
+    @Override
+    public void setAll(int[] values) {
+        if (values.length != this.size) {
+            throw new IllegalArgumentException("Expected " + this.size + " values");
+        }
+        BitArrays.setAll(this.words, this.version, this.size, values);
+    }
+
+    @Override
+    public void fill(int value) {
+        if (value < 0 || value > this.version.maxEntryValue) {
+            throw new IllegalArgumentException("Invalid value " + value);
+        }
+        BitArrays.fill(this.words, this.version, this.size, value);
+    }
+
+    @Override
+    public BitArray repack(BitArrayVersion version) {
+        return BitArrays.repack(this, version);
+    }
+
     @Override
     public BitArray copy() {
         return new PaddedBitArray(this.version, this.size, Arrays.copyOf(this.words, this.words.length));
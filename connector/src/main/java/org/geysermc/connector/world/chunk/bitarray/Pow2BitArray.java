@@ -41,7 +41,9 @@ public class Pow2BitArray implements BitArray {
      */
     public void set(int index, int value) {
         Preconditions.checkElementIndex(index, this.size);
-        Preconditions.checkArgument(value >= 0 && value <= this.version.maxEntryValue, "Invalid value %s", value);
+        if (value < 0 || value > this.version.maxEntryValue) {
+            throw new IllegalArgumentException("Invalid value " + value);
+        }
         int bitIndex = index * this.version.bits;
         int arrayIndex = bitIndex >> 5;
         int offset = bitIndex & 31;
@@ -79,6 +81,27 @@ public class Pow2BitArray implements BitArray {
         return version;
     }
 
+    @Override
+    public void setAll(int[] values) {
+        if (values.length != this.size) {
+            throw new IllegalArgumentException("Expected " + this.size + " values");
+        }
+        BitArrays.setAll(this.words, this.version, this.size, values);
+    }
+
+    @Override
+    public void fill(int value) {
+        if (value < 0 || value > this.version.maxEntryValue) {
+            throw new IllegalArgumentException("Invalid value " + value);
+        }
+        BitArrays.fill(this.words, this.version, this.size, value);
+    }
+
+    @Override
+    public BitArray repack(BitArrayVersion version) {
+        return BitArrays.repack(this, version);
+    }
+
     @Override
     public BitArray copy() {
         return new Pow2BitArray(this.version, this.size, Arrays.copyOf(this.words, this.words.length));
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.remote;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.geysermc.connector.configuration.RemoteConfiguration;
+import org.geysermc.connector.network.remote.BackendBalancer.Backend;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BackendBalancerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory());
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    private EventLoopGroup eventLoopGroup;
+    private CountDownLatch unblock;
+    private BackendBalancer balancer;
+
+    @Before
+    public void startEventLoop() {
+        eventLoopGroup = new NioEventLoopGroup(1);
+    }
+
+    @After
+    public void stopEventLoop() {
+        if (balancer != null) {
+            balancer.stop();
+        }
+        if (unblock != null) {
+            unblock.countDown();
+        }
+        eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).awaitUninterruptibly();
+    }
+
+    @Test
+    public void singleServerWithoutBackends() throws IOException {
+        balancer = new BackendBalancer(config("address: 127.0.0.1\nport: 25566\n"), eventLoopGroup);
+
+        assertEquals(1, balancer.getBackends().size());
+        Backend backend = balancer.getBackends().get(0);
+        assertEquals("127.0.0.1", backend.getAddress());
+        assertEquals(25566, backend.getPort());
+        assertTrue(backend.isHealthy());
+        assertSame(backend, balancer.select(Collections.emptyList()));
+        assertEquals(1, backend.getConnections());
+    }
+
+    @Test
+    public void leastConnectionsPerWeight() throws IOException {
+        createBlocked("least-connections", 1, 2);
+        Backend light = balancer.getBackends().get(0);
+        Backend heavy = balancer.getBackends().get(1);
+
+        List<Backend> selected = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            selected.add(balancer.select(Collections.emptyList()));
+        }
+
+        // Ties go to the first server, after that the server with twice the weight gets twice the connections
+        assertEquals(Arrays.asList(light, heavy, heavy, light, heavy, heavy), selected);
+        assertEquals(2, light.getConnections());
+        assertEquals(4, heavy.getConnections());
+    }
+
+    @Test
+    public void releaseFreesConnection() throws IOException {
+        createBlocked("least-connections", 1, 1);
+        Backend first = balancer.select(Collections.emptyList());
+        Backend second = balancer.select(Collections.emptyList());
+        assertFalse(first == second);
+
+        balancer.release(second);
+        assertEquals(0, second.getConnections());
+        assertSame(second, balancer.select(Collections.emptyList()));
+    }
+
+    @Test
+    public void weightedIsSmooth() throws IOException {
+        createBlocked("weighted", 5, 1, 1);
+        Backend a = balancer.getBackends().get(0);
+        Backend b = balancer.getBackends().get(1);
+        Backend c = balancer.getBackends().get(2);
+
+        List<Backend> selected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            selected.add(balancer.select(Collections.emptyList()));
+        }
+
+        // The heaviest server is spread over the round instead of being picked five times in a row
+        assertEquals(Arrays.asList(a, a, b, a, c, a, a), selected);
+        assertEquals(5, a.getConnections());
+        assertEquals(1, b.getConnections());
+        assertEquals(1, c.getConnections());
+    }
+
+    @Test
+    public void weightedIgnoresConnections() throws IOException {
+        createBlocked("weighted", 1, 1);
+        Backend first = balancer.select(Collections.emptyList());
+        Backend second = balancer.select(Collections.emptyList());
+        balancer.release(second);
+
+        assertSame(first, balancer.select(Collections.emptyList()));
+    }
+
+    @Test
+    public void excludedServersAreSkipped() throws IOException {
+        createBlocked("least-connections", 1, 1, 1);
+        Backend excluded = balancer.getBackends().get(0);
+
+        for (int i = 0; i < 4; i++) {
+            Backend selected = balancer.select(Collections.singletonList(excluded));
+            assertFalse(selected == excluded);
+        }
+        assertEquals(0, excluded.getConnections());
+        assertNull(balancer.select(balancer.getBackends()));
+    }
+
+    @Test
+    public void unhealthyServersAreSkipped() throws Exception {
+        try (ServerSocket silent = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            int closedPort = closedPort();
+            balancer = new BackendBalancer(config("balancing: least-connections\nbackends:\n"
+                    + "  - address: 127.0.0.1\n    port: " + closedPort + "\n"
+                    + "  - address: 127.0.0.1\n    port: " + silent.getLocalPort() + "\n"), eventLoopGroup);
+            Backend down = balancer.getBackends().get(0);
+            Backend up = balancer.getBackends().get(1);
+
+            // The silent server accepts the connection and only fails the poll once the read times out
+            waitFor(() -> !down.isHealthy());
+            assertTrue(up.isHealthy());
+            assertSame(up, balancer.select(Collections.emptyList()));
+            assertSame(up, balancer.select(Collections.emptyList()));
+        }
+    }
+
+    @Test
+    public void unhealthyServerUsedAsLastResort() throws Exception {
+        int closedPort = closedPort();
+        balancer = new BackendBalancer(config("backends:\n"
+                + "  - address: 127.0.0.1\n    port: " + closedPort + "\n"
+                + "  - address: 127.0.0.1\n    port: " + closedPort + "\n"), eventLoopGroup);
+        Backend first = balancer.getBackends().get(0);
+        Backend second = balancer.getBackends().get(1);
+
+        waitFor(() -> !first.isHealthy() && !second.isHealthy());
+        assertSame(first, balancer.select(Collections.emptyList()));
+        assertSame(second, balancer.select(Collections.singletonList(first)));
+    }
+
+    /**
+     * Creates a balancer with the given weights while the event loop is blocked, so the status
+     * polls never run and every server stays healthy
+     */
+    private void createBlocked(String balancing, int... weights) throws IOException {
+        unblock = new CountDownLatch(1);
+        eventLoopGroup.execute(() -> {
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        StringBuilder yaml = new StringBuilder("balancing: ").append(balancing).append("\nbackends:\n");
+        for (int i = 0; i < weights.length; i++) {
+            yaml.append("  - address: 127.0.0.1\n    port: ").append(25565 + i)
+                    .append("\n    weight: ").append(weights[i]).append('\n');
+        }
+        balancer = new BackendBalancer(config(yaml.toString()), eventLoopGroup);
+    }
+
+    private static RemoteConfiguration config(String yaml) throws IOException {
+        return MAPPER.readValue(yaml, RemoteConfiguration.class);
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
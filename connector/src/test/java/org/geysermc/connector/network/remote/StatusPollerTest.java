@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.remote;
+
+import com.github.steveice10.mc.protocol.data.status.ServerStatusInfo;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatusPollerTest {
+
+    private static final long INTERVAL = 50;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    private EventLoopGroup eventLoopGroup;
+
+    @Before
+    public void startEventLoop() {
+        eventLoopGroup = new NioEventLoopGroup(1);
+    }
+
+    @After
+    public void stopEventLoop() {
+        eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).awaitUninterruptibly();
+    }
+
+    @Test
+    public void receivesStatus() throws Exception {
+        try (FakeStatusServer server = new FakeStatusServer()) {
+            StatusPoller poller = new StatusPoller(eventLoopGroup, "127.0.0.1", server.getPort(), INTERVAL);
+            poller.start();
+            try {
+                waitFor(() -> poller.getInfo() != null);
+
+                ServerStatusInfo info = poller.getInfo();
+                assertEquals(3, info.getPlayerInfo().getOnlinePlayers());
+                assertEquals(20, info.getPlayerInfo().getMaxPlayers());
+                assertTrue(poller.isHealthy());
+                assertEquals(1, server.lastIntent);
+
+                // Polls keep going after the first status
+                int polls = server.polls.get();
+                waitFor(() -> server.polls.get() > polls);
+            } finally {
+                poller.stop();
+            }
+        }
+    }
+
+    @Test
+    public void unreachableServerIsUnhealthy() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+
+        StatusPoller poller = new StatusPoller(eventLoopGroup, "127.0.0.1", port, INTERVAL);
+        poller.start();
+        try {
+            waitFor(() -> !poller.isHealthy());
+            assertNull(poller.getInfo());
+        } finally {
+            poller.stop();
+        }
+    }
+
+    @Test
+    public void recoversOnceServerAnswers() throws Exception {
+        try (FakeStatusServer server = new FakeStatusServer()) {
+            server.answer = false;
+
+            StatusPoller poller = new StatusPoller(eventLoopGroup, "127.0.0.1", server.getPort(), INTERVAL);
+            poller.start();
+            try {
+                waitFor(() -> !poller.isHealthy());
+                assertNull(poller.getInfo());
+
+                server.answer = true;
+                waitFor(poller::isHealthy);
+                assertEquals(3, poller.getInfo().getPlayerInfo().getOnlinePlayers());
+            } finally {
+                poller.stop();
+            }
+        }
+    }
+
+    @Test
+    public void stoppingOnePollerKeepsTheSharedLoopRunning() throws Exception {
+        try (FakeStatusServer first = new FakeStatusServer(); FakeStatusServer second = new FakeStatusServer()) {
+            StatusPoller firstPoller = new StatusPoller(eventLoopGroup, "127.0.0.1", first.getPort(), INTERVAL);
+            StatusPoller secondPoller = new StatusPoller(eventLoopGroup, "127.0.0.1", second.getPort(), INTERVAL);
+            firstPoller.start();
+            secondPoller.start();
+            try {
+                waitFor(() -> firstPoller.getInfo() != null && secondPoller.getInfo() != null);
+
+                firstPoller.stop();
+                assertFalse(eventLoopGroup.isShuttingDown());
+
+                int polls = second.polls.get();
+                waitFor(() -> second.polls.get() > polls + 2);
+            } finally {
+                firstPoller.stop();
+                secondPoller.stop();
+            }
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Answers status requests like a Java server, or closes the connection without answering
+     */
+    private static class FakeStatusServer implements AutoCloseable {
+        private static final String STATUS = "{\"version\":{\"name\":\"1.14.4\",\"protocol\":498},"
+                + "\"players\":{\"max\":20,\"online\":3},\"description\":{\"text\":\"Fake server\"}}";
+
+        private final ServerSocket socket;
+        private final AtomicInteger polls = new AtomicInteger();
+        private volatile boolean answer = true;
+        private volatile int lastIntent = -1;
+
+        private FakeStatusServer() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(this::accept, "Fake Status Server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int getPort() {
+            return socket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!socket.isClosed()) {
+                try (Socket client = socket.accept()) {
+                    DataInputStream in = new DataInputStream(client.getInputStream());
+                    DataInputStream handshake = readFrame(in);
+                    readVarInt(handshake); // Packet id
+                    readVarInt(handshake); // Protocol version
+                    handshake.skipBytes(readVarInt(handshake)); // Address
+                    handshake.readUnsignedShort();
+                    lastIntent = readVarInt(handshake);
+                    readFrame(in); // Status query
+                    polls.incrementAndGet();
+
+                    if (answer) {
+                        ByteArrayOutputStream body = new ByteArrayOutputStream();
+                        writeVarInt(body, 0x00);
+                        byte[] status = STATUS.getBytes(StandardCharsets.UTF_8);
+                        writeVarInt(body, status.length);
+                        body.write(status);
+
+                        OutputStream out = client.getOutputStream();
+                        writeVarInt(out, body.size());
+                        body.writeTo(out);
+                        out.flush();
+                    }
+                } catch (IOException ignored) {
+                    // Closed by the poller or the test
+                }
+            }
+        }
+
+        private static DataInputStream readFrame(DataInputStream in) throws IOException {
+            byte[] frame = new byte[readVarInt(in)];
+            in.readFully(frame);
+            return new DataInputStream(new ByteArrayInputStream(frame));
+        }
+
+        private static int readVarInt(InputStream in) throws IOException {
+            int value = 0;
+            for (int i = 0; i < 5; i++) {
+                int b = in.read();
+                if (b == -1)
+                    throw new IOException("End of stream");
+
+                value |= (b & 0x7F) << (i * 7);
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IOException("VarInt too big");
+        }
+
+        private static void writeVarInt(OutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
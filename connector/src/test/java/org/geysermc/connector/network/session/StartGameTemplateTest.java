@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session;
+
+import com.nukkitx.math.vector.Vector2f;
+import com.nukkitx.math.vector.Vector3f;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.geysermc.connector.GeyserConnector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the start game packet built from the pre-encoded tail is encoded exactly like a normal one
+ */
+public class StartGameTemplateTest {
+
+    @Test
+    public void templateIsUsed() {
+        assertTrue("The template didn't match the codec", StartGameTemplate.isEnabled());
+    }
+
+    @Test
+    public void matchesNormalEncoding() {
+        assertMatches(1, 0, 0, Vector3f.from(0, 69, 0), Vector2f.from(1, 1));
+        assertMatches(Long.MAX_VALUE, 1, 1, Vector3f.from(-30000000f, 255f, 30000000f), Vector2f.from(-90f, 180f));
+        assertMatches(300, 3, 2, Vector3f.from(0.5f, -64f, 0.5f), Vector2f.ZERO);
+    }
+
+    private static void assertMatches(long entityId, int gamemode, int dimension, Vector3f position, Vector2f rotation) {
+        ByteBuf expected = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(StartGameTemplate.withPaletteAndItems(
+                StartGameTemplate.create(entityId, gamemode, dimension, position, rotation)));
+        ByteBuf actual = GeyserConnector.BEDROCK_PACKET_CODEC.tryEncode(StartGameTemplate.build(entityId, gamemode, dimension, position, rotation));
+        try {
+            assertTrue("Entity " + entityId + " was encoded differently", ByteBufUtil.equals(expected, actual));
+        } finally {
+            expected.release();
+            actual.release();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.cache;
+
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.ItemStack;
+import com.github.steveice10.mc.protocol.packet.ingame.server.window.ServerSetSlotPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.window.ServerWindowItemsPacket;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.nukkitx.protocol.bedrock.data.ItemData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryCacheTest {
+
+    private static final int WINDOW = 1;
+
+    private InventoryCache cache;
+
+    @Before
+    public void createCache() {
+        cache = new InventoryCache(null);
+    }
+
+    @Test
+    public void keepsPacketsInOrder() {
+        Packet first = setSlot(0);
+        Packet second = setSlot(1);
+        cache.cachePacket(WINDOW, first);
+        cache.cachePacket(WINDOW, second);
+
+        assertEquals(Arrays.asList(first, second), take(WINDOW));
+        assertTrue("Taking the packets should remove them", cache.takePendingPackets(WINDOW).isEmpty());
+    }
+
+    @Test
+    public void nothingPendingForUnknownWindow() {
+        assertTrue(cache.takePendingPackets(WINDOW).isEmpty());
+    }
+
+    @Test
+    public void windowItemsReplaceEverythingBefore() {
+        cache.cachePacket(WINDOW, windowItems());
+        cache.cachePacket(WINDOW, setSlot(0));
+        cache.cachePacket(WINDOW, setSlot(1));
+        Packet items = windowItems();
+        cache.cachePacket(WINDOW, items);
+
+        assertEquals(Collections.singletonList(items), take(WINDOW));
+    }
+
+    @Test
+    public void setSlotReplacesSameSlot() {
+        Packet items = windowItems();
+        Packet other = setSlot(1);
+        Packet latest = setSlot(0);
+        cache.cachePacket(WINDOW, items);
+        cache.cachePacket(WINDOW, setSlot(0));
+        cache.cachePacket(WINDOW, other);
+        cache.cachePacket(WINDOW, latest);
+
+        // The contents stay first so the later slot changes are applied on top of them
+        assertEquals(Arrays.asList(items, other, latest), take(WINDOW));
+    }
+
+    @Test
+    public void windowsAreSeparate() {
+        Packet first = setSlot(0);
+        Packet second = windowItems();
+        cache.cachePacket(WINDOW, first);
+        cache.cachePacket(WINDOW + 1, second);
+
+        assertEquals(Collections.singletonList(first), take(WINDOW));
+        assertEquals(Collections.singletonList(second), take(WINDOW + 1));
+    }
+
+    @Test
+    public void dropsOldestSlotsWhenFull() {
+        Packet items = windowItems();
+        cache.cachePacket(WINDOW, items);
+        int slots = 200;
+        for (int slot = 0; slot < slots; slot++) {
+            cache.cachePacket(WINDOW, setSlot(slot));
+        }
+
+        List<Packet> packets = take(WINDOW);
+        assertEquals(128, packets.size());
+        assertSame("The contents should be kept over slot changes", items, packets.get(0));
+        assertEquals(slots - 127, ((ServerSetSlotPacket) packets.get(1)).getSlot());
+        assertEquals(slots - 1, ((ServerSetSlotPacket) packets.get(127)).getSlot());
+    }
+
+    @Test
+    public void uncacheDropsPendingPackets() {
+        cache.cachePacket(WINDOW, setSlot(0));
+        cache.uncacheInventory(WINDOW);
+
+        assertTrue(cache.takePendingPackets(WINDOW).isEmpty());
+    }
+
+    @Test
+    public void openingDropsOtherWindows() {
+        Packet opening = setSlot(0);
+        cache.cachePacket(WINDOW, opening);
+        cache.cachePacket(WINDOW + 1, setSlot(0));
+        cache.dropPendingPackets(WINDOW);
+
+        assertTrue(cache.takePendingPackets(WINDOW + 1).isEmpty());
+        assertEquals(Collections.singletonList(opening), take(WINDOW));
+    }
+
+    @Test
+    public void removeSentItemsSendsEverythingAgain() {
+        cache.setSentItems(WINDOW, new ItemData[0]);
+        cache.setSentItems(WINDOW + 1, new ItemData[0]);
+        cache.removeSentItems(WINDOW);
+
+        assertNull(cache.getSentItems(WINDOW));
+        assertNotNull("Other containers should keep their items", cache.getSentItems(WINDOW + 1));
+    }
+
+    private List<Packet> take(int id) {
+        return new ArrayList<>(cache.takePendingPackets(id));
+    }
+
+    private static ServerSetSlotPacket setSlot(int slot) {
+        return new ServerSetSlotPacket(WINDOW, slot, new ItemStack(1));
+    }
+
+    private static ServerWindowItemsPacket windowItems() {
+        return new ServerWindowItemsPacket(WINDOW, new ItemStack[0]);
+    }
+}
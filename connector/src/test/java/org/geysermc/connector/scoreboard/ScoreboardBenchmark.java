@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.scoreboard;
+
+import com.github.steveice10.mc.protocol.data.game.scoreboard.ScoreboardPosition;
+import org.geysermc.connector.configuration.BatchingInfo;
+import org.geysermc.connector.configuration.CompressionInfo;
+import org.geysermc.connector.network.capture.ReplayUpstreamSession;
+import org.geysermc.connector.network.session.GeyserSession;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+
+/**
+ * Times a nametag plugin style scoreboard: one team per player and a sidebar score for every player.
+ * Run with {@code java -cp <test classpath> org.geysermc.connector.scoreboard.ScoreboardBenchmark [players]}.
+ */
+public class ScoreboardBenchmark {
+
+    private static final int WARMUP_ROUNDS = 1_000;
+    private static final int ROUNDS = 1_000;
+
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+        ReplayUpstreamSession upstream = new ReplayUpstreamSession(new InetSocketAddress("127.0.0.1", 19132),
+                new BatchingInfo(), new CompressionInfo());
+        GeyserSession session = new GeyserSession(null, upstream);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(session, players);
+        }
+
+        long setupTime = 0;
+        long updateTime = 0;
+        long packets = upstream.getPacketsSent();
+        for (int i = 0; i < ROUNDS; i++) {
+            long[] times = run(session, players);
+            setupTime += times[0];
+            updateTime += times[1];
+        }
+        packets = (upstream.getPacketsSent() - packets) / ROUNDS;
+
+        System.out.printf("%d teams x %d scores: setup %.3f ms, update every team %.3f ms, %d packets per round%n",
+                players, players, setupTime / 1e6 / ROUNDS, updateTime / 1e6 / ROUNDS, packets);
+    }
+
+    /**
+     * @return the time it took to set the scoreboard up and to update every team once, in nanoseconds
+     */
+    private static long[] run(GeyserSession session, int players) {
+        Scoreboard scoreboard = new Scoreboard(session) {
+            @Override
+            public void requestUpdate() {
+                // Flushed by hand below instead of after a tick
+            }
+        };
+
+        synchronized (scoreboard) {
+            long start = System.nanoTime();
+            for (int i = 0; i < players; i++) {
+                scoreboard.registerNewTeam("team" + i, Collections.singleton("player" + i))
+                        .setPrefix("[" + i + "] ")
+                        .setSuffix("");
+            }
+            Objective objective = scoreboard.registerNewObjective("sidebar", ScoreboardPosition.SIDEBAR);
+            for (int i = 0; i < players; i++) {
+                objective.registerScore("player" + i, i);
+            }
+            scoreboard.onUpdate();
+            long setup = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < players; i++) {
+                Team team = scoreboard.getTeam("team" + i);
+                team.setPrefix("[" + (i + 1) + "] ").setUpdateType(UpdateType.UPDATE);
+                scoreboard.markDirty(team);
+            }
+            scoreboard.onUpdate();
+            long update = System.nanoTime() - start;
+
+            return new long[] {setup, update};
+        }
+    }
+}
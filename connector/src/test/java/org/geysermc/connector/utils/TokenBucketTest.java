@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void allowsBurstThenLimits() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+    }
+
+    @Test
+    public void refillsAtTheGivenRate() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = System.nanoTime();
+
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now + 50 * MILLIS));
+        assertTrue(bucket.tryAcquire(now + 110 * MILLIS));
+        assertFalse(bucket.tryAcquire(now + 110 * MILLIS));
+    }
+
+    @Test
+    public void idleTimeIsCappedAtTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long later = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    public void burstIsAtLeastOne() {
+        TokenBucket bucket = new TokenBucket(1, 0);
+        long now = System.nanoTime();
+
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+    }
+
+    @Test
+    public void noRateAllowsEverything() {
+        TokenBucket bucket = new TokenBucket(0, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nukkitx.protocol.bedrock.packet.StartGamePacket;
+import org.geysermc.connector.network.translators.block.BlockEntry;
+import org.geysermc.connector.network.translators.item.ItemEntry;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Checks that the mappings compiled during the build are present and decode to the JSON mappings
+ */
+public class ToolboxTest {
+
+    @Test
+    public void compiledMappingsArePackaged() throws IOException {
+        try (InputStream stream = getClass().getClassLoader().getResourceAsStream(MappingsCompiler.RESOURCE)) {
+            assertNotNull(MappingsCompiler.RESOURCE + " wasn't compiled during the build", stream);
+        }
+    }
+
+    @Test
+    public void itemsMatchJson() throws IOException {
+        JsonNode startGameItems = readTree("bedrock/items.json");
+        assertEquals(startGameItems.size(), Toolbox.ITEMS.size());
+        Iterator<StartGamePacket.ItemEntry> entries = Toolbox.ITEMS.iterator();
+        for (JsonNode json : startGameItems) {
+            StartGamePacket.ItemEntry entry = entries.next();
+            assertEquals(json.get("name").asText(), entry.getIdentifier());
+            assertEquals(json.get("id").asInt(), entry.getId());
+        }
+
+        JsonNode items = readTree("items.json");
+        assertEquals(items.size(), Toolbox.ITEM_ENTRIES.size());
+        int index = 0;
+        Iterator<Map.Entry<String, JsonNode>> iterator = items.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> json = iterator.next();
+            ItemEntry entry = Toolbox.ITEM_ENTRIES.get(index);
+            assertEquals(json.getKey(), entry.getJavaIdentifier());
+            assertEquals(index, entry.getJavaId());
+            assertEquals(json.getValue().get("bedrock_id").asInt(), entry.getBedrockId());
+            assertEquals(json.getValue().get("bedrock_data").asInt(), entry.getBedrockData());
+            index++;
+        }
+    }
+
+    @Test
+    public void blocksMatchJson() throws IOException {
+        Map<String, Integer> bedrockIds = new HashMap<>();
+        for (JsonNode entry : readTree("bedrock/cached_palette.json")) {
+            bedrockIds.put(entry.get("name").asText(), entry.get("id").asInt());
+        }
+
+        JsonNode blocks = readTree("blocks.json");
+        assertEquals(blocks.size(), Toolbox.BLOCK_ENTRIES.size());
+        int index = 0;
+        Iterator<Map.Entry<String, JsonNode>> iterator = blocks.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> json = iterator.next();
+            BlockEntry entry = Toolbox.BLOCK_ENTRIES.get(index);
+            Integer bedrockId = bedrockIds.get(json.getValue().get("bedrock_identifier").asText());
+
+            assertEquals(json.getKey(), entry.getJavaIdentifier());
+            assertEquals(index, entry.getJavaId());
+            if (bedrockId == null) {
+                assertEquals(MappingsCompiler.UNMAPPED_BLOCK_ID, entry.getBedrockId());
+                assertEquals(0, entry.getBedrockData());
+            } else {
+                assertEquals((int) bedrockId, entry.getBedrockId());
+                assertEquals(json.getValue().get("bedrock_data").asInt(), entry.getBedrockData());
+            }
+            index++;
+        }
+    }
+
+    private static JsonNode readTree(String resource) throws IOException {
+        try (InputStream stream = ToolboxTest.class.getClassLoader().getResourceAsStream(resource)) {
+            return new ObjectMapper().readTree(stream);
+        }
+    }
+}
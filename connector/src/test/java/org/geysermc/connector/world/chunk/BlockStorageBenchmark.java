@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.world.chunk;
+
+import org.geysermc.connector.world.GlobalBlockPalette;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Times filling a fresh storage block by block, the way a chunk section is translated.
+ * Run with {@code java -cp <test classpath> org.geysermc.connector.world.chunk.BlockStorageBenchmark [states...]},
+ * preferably once per state count so the JIT doesn't profile the other cases.
+ */
+public class BlockStorageBenchmark {
+
+    private static final int SIZE = 4096;
+    private static final int[] STATES = {1, 16, 64, 300};
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int ROUNDS = 20_000;
+
+    public static void main(String[] args) {
+        for (int legacyId = 0; legacyId <= 300; legacyId++) {
+            GlobalBlockPalette.registerMapping(legacyId);
+        }
+
+        int[] statesToRun = STATES;
+        if (args.length > 0) {
+            statesToRun = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                statesToRun[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        long sink = 0;
+        for (int states : statesToRun) {
+            int[] legacyIds = createBlocks(states);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sink += fill(legacyIds);
+            }
+
+            long allocated = getAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                sink += fill(legacyIds);
+            }
+            long elapsed = System.nanoTime() - start;
+            allocated = getAllocatedBytes() - allocated;
+            System.out.printf("%3d states: %8.2f us, %6d bytes per section%n", states, elapsed / 1000.0 / ROUNDS, allocated / ROUNDS);
+        }
+        System.out.println("(" + sink + ")");
+    }
+
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static int[] createBlocks(int states) {
+        int[] legacyIds = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            // Runs of the same block, like the layers of a real section
+            legacyIds[i] = 1 + (i / 7) % states;
+        }
+        return legacyIds;
+    }
+
+    private static int fill(int[] legacyIds) {
+        BlockStorage storage = new BlockStorage();
+        for (int i = 0; i < SIZE; i++) {
+            storage.setFullBlock(i, legacyIds[i]);
+        }
+        return storage.getFullBlock(SIZE - 1);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.world.chunk;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.geysermc.connector.world.GlobalBlockPalette;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BlockStorageTest {
+
+    private static final int SIZE = 4096;
+    private static final int BLOCKS = 300;
+
+    @BeforeClass
+    public static void registerBlocks() {
+        // Air has to be registered first so it gets runtime id 0
+        for (int legacyId = 0; legacyId <= BLOCKS; legacyId++) {
+            if (GlobalBlockPalette.getLegacyId(GlobalBlockPalette.getOrCreateRuntimeId(legacyId)) != legacyId) {
+                GlobalBlockPalette.registerMapping(legacyId);
+            }
+        }
+    }
+
+    @Test
+    public void newStorageIsEmpty() {
+        BlockStorage storage = new BlockStorage();
+        assertTrue(storage.isEmpty());
+        assertEquals(0, storage.getFullBlock(0));
+        assertEquals(1, getPaletteSize(storage));
+    }
+
+    @Test
+    public void resizesWhenPaletteGrows() {
+        for (int blocks : new int[] {1, 3, 4, 8, 9, 16, 64, BLOCKS}) {
+            BlockStorage storage = new BlockStorage();
+            for (int i = 0; i < SIZE; i++) {
+                storage.setFullBlock(i, 1 + i % blocks);
+            }
+
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals("blocks " + blocks + ", index " + i, 1 + i % blocks, storage.getFullBlock(i));
+            }
+            // Air stays at the start of the palette
+            assertEquals(blocks + 1, getPaletteSize(storage));
+            assertTrue(getBits(storage) >= 32 - Integer.numberOfLeadingZeros(blocks));
+        }
+    }
+
+    @Test
+    public void repeatedBlocksReuseTheirPaletteEntry() {
+        BlockStorage storage = new BlockStorage();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < SIZE; i++) {
+                storage.setFullBlock(i, 1 + (i + round) % 20);
+            }
+        }
+        assertEquals(21, getPaletteSize(storage));
+    }
+
+    @Test
+    public void setFullBlocksMatchesSetFullBlock() {
+        int[] legacyIds = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            legacyIds[i] = (i * 31) % BLOCKS;
+        }
+
+        BlockStorage bulk = new BlockStorage();
+        bulk.setFullBlocks(legacyIds);
+        BlockStorage single = new BlockStorage();
+        for (int i = 0; i < SIZE; i++) {
+            single.setFullBlock(i, legacyIds[i]);
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(legacyIds[i], bulk.getFullBlock(i));
+        }
+        assertEquals(write(single), write(bulk));
+    }
+
+    @Test
+    public void copyKeepsItsOwnPalette() {
+        BlockStorage storage = new BlockStorage();
+        for (int i = 0; i < 16; i++) {
+            storage.setFullBlock(i, i + 1);
+        }
+
+        BlockStorage copy = storage.copy();
+        copy.setFullBlock(100, 50);
+        copy.setFullBlock(101, 3);
+
+        assertEquals(50, copy.getFullBlock(100));
+        assertEquals(3, copy.getFullBlock(101));
+        assertEquals(0, storage.getFullBlock(100));
+        assertEquals(18, getPaletteSize(copy));
+        assertEquals(17, getPaletteSize(storage));
+    }
+
+    private static ByteBuf write(BlockStorage storage) {
+        ByteBuf buffer = Unpooled.buffer(storage.getNetworkSize());
+        storage.writeToNetwork(buffer);
+        assertEquals(storage.getNetworkSize(), buffer.readableBytes());
+        return buffer;
+    }
+
+    private static int getBits(BlockStorage storage) {
+        return write(storage).getUnsignedByte(0) >> 1;
+    }
+
+    private static int getPaletteSize(BlockStorage storage) {
+        ByteBuf buffer = write(storage);
+        int bits = buffer.readUnsignedByte() >> 1;
+        int entriesPerWord = 32 / bits;
+        buffer.skipBytes(((SIZE + entriesPerWord - 1) / entriesPerWord) * 4);
+        return readVarInt(buffer);
+    }
+
+    private static int readVarInt(ByteBuf buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
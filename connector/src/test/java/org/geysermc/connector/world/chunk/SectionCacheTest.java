@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.world.chunk;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SectionCacheTest {
+
+    @Test
+    public void equalContentHits() {
+        SectionCache cache = new SectionCache(16);
+        cache.put(key(1, 5), section(), new byte[] {1}, new int[0]);
+
+        SectionCache.Entry entry = cache.get(key(1, 5));
+        assertEquals(1, entry.getEncoded()[0]);
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void unknownHashMisses() {
+        SectionCache cache = new SectionCache(16);
+        cache.put(key(1, 5), section(), new byte[] {1}, new int[0]);
+
+        assertNull(cache.get(key(2, 5)));
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getCollisions());
+    }
+
+    @Test
+    public void collidingDataMisses() {
+        SectionCache cache = new SectionCache(16);
+        cache.put(key(1, 5), section(), new byte[] {1}, new int[0]);
+
+        // Same hash, different storage
+        assertNull(cache.get(key(1, 6)));
+        // Same hash and storage, different palette
+        assertNull(cache.get(new SectionCache.Key(1, new int[] {0, 2}, new long[] {5})));
+
+        assertEquals(2, cache.getCollisions());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void collidingPutKeepsFirstSection() {
+        SectionCache cache = new SectionCache(16);
+        ChunkSection first = section();
+        cache.put(key(1, 5), first, new byte[] {1}, new int[0]);
+        cache.put(key(1, 6), section(), new byte[] {2}, new int[0]);
+
+        assertEquals(1, cache.size());
+        assertSame(first, cache.get(key(1, 5)).getSection());
+        assertNull(cache.get(key(1, 6)));
+    }
+
+    @Test
+    public void storageIsCopiedOnPut() {
+        SectionCache cache = new SectionCache(16);
+        long[] data = {5};
+        cache.put(new SectionCache.Key(1, new int[] {0, 1}, data), section(), new byte[] {1}, new int[0]);
+
+        // The Java chunk may be changed after it was translated
+        data[0] = 6;
+
+        assertEquals(1, cache.get(key(1, 5)).getEncoded()[0]);
+        assertEquals(0, cache.getCollisions());
+    }
+
+    @Test
+    public void oldestSectionIsEvicted() {
+        SectionCache cache = new SectionCache(2);
+        cache.put(key(1, 1), section(), new byte[] {1}, new int[0]);
+        cache.put(key(2, 2), section(), new byte[] {2}, new int[0]);
+        cache.put(key(3, 3), section(), new byte[] {3}, new int[0]);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(key(1, 1)));
+        assertEquals(2, cache.get(key(2, 2)).getEncoded()[0]);
+        assertEquals(3, cache.get(key(3, 3)).getEncoded()[0]);
+    }
+
+    @Test
+    public void hitRateCountsCollisionsAsMisses() {
+        SectionCache cache = new SectionCache(16);
+        assertEquals(0, cache.getHitRate(), 0);
+
+        cache.put(key(1, 5), section(), new byte[] {1}, new int[0]);
+        cache.get(key(1, 5));
+        cache.get(key(1, 6));
+
+        assertEquals(0.5, cache.getHitRate(), 0);
+    }
+
+    private static SectionCache.Key key(long hash, long word) {
+        return new SectionCache.Key(hash, new int[] {0, 1}, new long[] {word});
+    }
+
+    private static ChunkSection section() {
+        return new ChunkSection(new BlockStorage[] {new BlockStorage(), new BlockStorage()});
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.world.chunk.bitarray;
+
+import java.util.Random;
+
+/**
+ * Times the bulk operations of the bit arrays against doing the same entry by entry.
+ * Run with {@code java -cp <test classpath> org.geysermc.connector.world.chunk.bitarray.BitArrayBenchmark [version]},
+ * preferably once per version so the call sites only ever see one bit array layout.
+ */
+public class BitArrayBenchmark {
+
+    private static final int SIZE = 4096;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int ROUNDS = 20_000;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        BitArrayVersion[] versions = {BitArrayVersion.V4, BitArrayVersion.V5};
+        if (args.length > 0) {
+            versions = new BitArrayVersion[] {BitArrayVersion.valueOf(args[0])};
+        }
+
+        for (BitArrayVersion version : versions) {
+            int[] values = new int[SIZE];
+            Random random = new Random(1);
+            for (int i = 0; i < SIZE; i++) {
+                values[i] = random.nextInt(version.getMaxEntryValue() + 1);
+            }
+            BitArray array = version.createPalette(SIZE);
+            array.setAll(values);
+            BitArray target = version.createPalette(SIZE);
+            BitArrayVersion next = version.next();
+
+            run(version + " set loop", () -> {
+                for (int i = 0; i < SIZE; i++) {
+                    target.set(i, values[i]);
+                }
+            });
+            run(version + " setAll", () -> target.setAll(values));
+            run(version + " get/set repack to " + next, () -> {
+                BitArray repacked = next.createPalette(SIZE);
+                for (int i = 0; i < SIZE; i++) {
+                    repacked.set(i, array.get(i));
+                }
+                sink += repacked.getWords()[0];
+            });
+            run(version + " repack to " + next, () -> sink += array.repack(next).getWords()[0]);
+            sink += target.getWords()[0];
+        }
+        System.out.println("(" + sink + ")");
+    }
+
+    private static void run(String name, Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-24s %8.2f us%n", name, elapsed / 1000.0 / ROUNDS);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.world.chunk.bitarray;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BitArrayTest {
+
+    private static final int SIZE = 4096;
+
+    @Test
+    public void setAllMatchesSet() {
+        for (BitArrayVersion version : BitArrayVersion.values()) {
+            int[] values = randomValues(version, 1);
+
+            BitArray single = version.createPalette(SIZE);
+            for (int i = 0; i < SIZE; i++) {
+                single.set(i, values[i]);
+            }
+            BitArray bulk = version.createPalette(SIZE);
+            bulk.setAll(values);
+
+            assertArrayEquals(version.name(), single.getWords(), bulk.getWords());
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(version.name(), values[i], bulk.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void setAllOverwritesPreviousEntries() {
+        BitArray array = BitArrayVersion.V4.createPalette(SIZE);
+        array.fill(15);
+        array.setAll(new int[SIZE]);
+        for (int word : array.getWords()) {
+            assertEquals(0, word);
+        }
+    }
+
+    @Test
+    public void fillMatchesSet() {
+        // 100 isn't a multiple of any entries per word, so the last word is only partly used
+        for (int size : new int[] {SIZE, 100}) {
+            for (BitArrayVersion version : BitArrayVersion.values()) {
+                int value = version.getMaxEntryValue();
+
+                BitArray single = version.createPalette(size);
+                for (int i = 0; i < size; i++) {
+                    single.set(i, value);
+                }
+                BitArray filled = version.createPalette(size);
+                filled.fill(value);
+
+                assertArrayEquals(version.name() + ", size " + size, single.getWords(), filled.getWords());
+            }
+        }
+    }
+
+    @Test
+    public void repackKeepsEveryEntry() {
+        for (BitArrayVersion from : BitArrayVersion.values()) {
+            int[] values = randomValues(from, 2);
+            BitArray array = from.createPalette(SIZE);
+            array.setAll(values);
+
+            for (BitArrayVersion to = from.next(); to != null; to = to.next()) {
+                BitArray repacked = array.repack(to);
+                assertEquals(to, repacked.getVersion());
+                assertEquals(SIZE, repacked.size());
+
+                BitArray expected = to.createPalette(SIZE);
+                expected.setAll(values);
+                assertArrayEquals(from.name() + " to " + to.name(), expected.getWords(), repacked.getWords());
+            }
+        }
+    }
+
+    @Test
+    public void copyDoesNotShareWords() {
+        BitArray array = BitArrayVersion.V3.createPalette(SIZE);
+        array.set(5, 7);
+        BitArray copy = array.copy();
+        copy.set(5, 1);
+
+        assertEquals(7, array.get(5));
+        assertEquals(1, copy.get(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void paddedSetRejectsTooLargeValues() {
+        BitArrayVersion.V3.createPalette(SIZE).set(0, 8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pow2SetRejectsTooLargeValues() {
+        BitArrayVersion.V4.createPalette(SIZE).set(0, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setAllRejectsWrongLength() {
+        BitArrayVersion.V5.createPalette(SIZE).setAll(new int[SIZE - 1]);
+    }
+
+    private static int[] randomValues(BitArrayVersion version, long seed) {
+        Random random = new Random(seed);
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextInt(version.getMaxEntryValue() + 1);
+        }
+        return values;
+    }
+}